@@ -0,0 +1,111 @@
+package de.xlb.minebase.benchmark;
+
+import de.xlb.minebase.api.MineDb;
+import de.xlb.minebase.types.ConnectionConfig;
+import de.xlb.minebase.types.InsertMultiRows;
+import de.xlb.minebase.types.InsertRow;
+import de.xlb.minebase.types.TableConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared Setup of the Benchmarks: temp Database with a filled players Table
+ */
+final class BenchmarkDb {
+    static final String TABLE = "players";
+    static final int WORLDS = 8;
+    static final int MAX_SCORE = 10_000;
+
+    private BenchmarkDb() {
+    }
+
+    /**
+     * New temp Folder for a Database
+     * @return File
+     * @throws IOException
+     */
+    static File tempFolder() throws IOException {
+        return Files.createTempDirectory("minebase-jmh").toFile();
+    }
+
+    /**
+     * Opens a Database
+     * @param folder
+     * @param preset default, durable, balanced or throughput
+     * @return MineDb
+     * @throws Exception
+     */
+    static MineDb open(File folder, String preset) throws Exception {
+        ConnectionConfig config = "default".equals(preset) ? new ConnectionConfig() : ConnectionConfig.preset(preset);
+        return new MineDb(quietLogger(), folder, config);
+    }
+
+    /**
+     * players Table, Version 1 of the Migration Benchmark
+     * @return TableConfig
+     */
+    static TableConfig players() {
+        TableConfig conf = new TableConfig(TABLE);
+        conf.addColumn("id", TableConfig.ColTypes.INTEGER);
+        conf.addColumn("name", TableConfig.ColTypes.TEXT);
+        conf.addColumn("world", TableConfig.ColTypes.TEXT);
+        conf.addColumn("score", TableConfig.ColTypes.INTEGER);
+        conf.setPrimary("id");
+        conf.addIndex(null, "score");
+        return conf;
+    }
+
+    /**
+     * Creates the players Table with Rows 0 until rowCount
+     * @param db
+     * @param rowCount
+     */
+    static void fill(MineDb db, int rowCount) {
+        db.createTable(players());
+        InsertMultiRows rows = new InsertMultiRows();
+        for (int id = 0; id < rowCount; id++) {
+            rows.add(row(id));
+        }
+        db.insert(TABLE, rows);
+    }
+
+    static InsertRow row(long id) {
+        InsertRow row = new InsertRow();
+        row.put("id", id);
+        row.put("name", "player_" + id);
+        row.put("world", "world_" + (id % WORLDS));
+        row.put("score", (id * 7919) % MAX_SCORE);
+        return row;
+    }
+
+    /**
+     * Closes the Database and deletes its Folder
+     * @param db
+     * @param folder
+     * @throws Exception
+     */
+    static void close(MineDb db, File folder) throws Exception {
+        db.close();
+        deleteRecursively(folder);
+    }
+
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private static Logger quietLogger() {
+        Logger log = Logger.getLogger("minebase-jmh");
+        log.setLevel(Level.WARNING);
+        return log;
+    }
+}
@@ -0,0 +1,89 @@
+package de.xlb.minebase.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.xlb.minebase.utils.BlobCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BlobCodec against Jackson JSON for a Player Save Payload (Inventory and Location)
+ * ./gradlew jmh -Pjmh.includes=BlobCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BlobCodecBenchmark {
+    private static final String[] MATERIALS = {"DIAMOND_SWORD", "STONE", "OAK_LOG", "COOKED_BEEF", "TORCH"};
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"36", "256"})
+    public int slots;
+
+    private Map<String, Object> payload;
+    private byte[] blob;
+    private byte[] deflatedBlob;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("slot", i);
+            item.put("type", MATERIALS[i % MATERIALS.length]);
+            item.put("amount", (i * 7) % 64);
+            item.put("damage", i % 3 == 0 ? 0 : -i);
+            items.add(item);
+        }
+        Map<String, Object> location = new LinkedHashMap<>();
+        location.put("world", "world");
+        location.put("x", 123.5);
+        location.put("y", 64.0);
+        location.put("z", -845.25);
+
+        payload = new LinkedHashMap<>();
+        payload.put("items", items);
+        payload.put("location", location);
+
+        blob = BlobCodec.encode(payload, -1);
+        deflatedBlob = BlobCodec.encode(payload, 0);
+        json = MAPPER.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] encodeBlob() {
+        return BlobCodec.encode(payload, -1);
+    }
+
+    @Benchmark
+    public byte[] encodeDeflatedBlob() {
+        return BlobCodec.encode(payload, 0);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return MAPPER.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public Object decodeBlob() {
+        return BlobCodec.decode(blob);
+    }
+
+    @Benchmark
+    public Object decodeDeflatedBlob() {
+        return BlobCodec.decode(deflatedBlob);
+    }
+
+    @Benchmark
+    public Object decodeJson() throws Exception {
+        return MAPPER.readValue(json, Map.class);
+    }
+}
@@ -0,0 +1,109 @@
+package de.xlb.minebase.benchmark;
+
+import de.xlb.minebase.api.MineDb;
+import de.xlb.minebase.types.InsertMultiRows;
+import de.xlb.minebase.types.ReturnSet;
+import de.xlb.minebase.types.UpdateRow;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.xlb.minebase.utils.Builder.*;
+
+/**
+ * CRUD Paths of MineDb against a filled players Table
+ * ./gradlew jmh -Pjmh.includes=CrudBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CrudBenchmark {
+    private static final int BULK_ROWS = 1000;
+
+    @Param({"1000", "100000"})
+    public int rowCount;
+
+    @Param({"default", "durable", "balanced", "throughput"})
+    public String preset;
+
+    private File folder;
+    private MineDb db;
+    private AtomicLong nextId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        folder = BenchmarkDb.tempFolder();
+        db = BenchmarkDb.open(folder, preset);
+        BenchmarkDb.fill(db, rowCount);
+        nextId = new AtomicLong(rowCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkDb.close(db, folder);
+    }
+
+    /**
+     * Row that exists and is deleted by the next Invocation of delete()
+     */
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+        long id;
+
+        @Setup(Level.Invocation)
+        public void insert(CrudBenchmark benchmark) {
+            id = benchmark.nextId.getAndIncrement();
+            benchmark.db.insert(BenchmarkDb.TABLE, BenchmarkDb.row(id));
+        }
+    }
+
+    @Benchmark
+    public ReturnSet insertSingle() {
+        return db.insert(BenchmarkDb.TABLE, BenchmarkDb.row(nextId.getAndIncrement()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ReturnSet insertBulk() {
+        InsertMultiRows rows = new InsertMultiRows();
+        long first = nextId.getAndAdd(BULK_ROWS);
+        for (int i = 0; i < BULK_ROWS; i++) {
+            rows.add(BenchmarkDb.row(first + i));
+        }
+        return db.insert(BenchmarkDb.TABLE, rows);
+    }
+
+    @Benchmark
+    public ReturnSet selectByPrimaryKey() {
+        return db.selectWhere(BenchmarkDb.TABLE, col("id", "name", "world", "score"),
+                where(eq("id", randomId())));
+    }
+
+    @Benchmark
+    public ReturnSet selectRangeSorted() {
+        long from = ThreadLocalRandom.current().nextLong(BenchmarkDb.MAX_SCORE - 100);
+        return db.selectWhere(BenchmarkDb.TABLE, col("id", "name", "score"),
+                where(between("score", from, from + 100)), sort("score desc"));
+    }
+
+    @Benchmark
+    public ReturnSet updateByCondition() {
+        UpdateRow row = new UpdateRow();
+        row.put("score", ThreadLocalRandom.current().nextLong(BenchmarkDb.MAX_SCORE));
+        return db.updateWhere(BenchmarkDb.TABLE, row, where(eq("id", randomId())));
+    }
+
+    @Benchmark
+    public ReturnSet delete(DeleteTarget target) {
+        return db.deleteWhere(BenchmarkDb.TABLE, where(eq("id", target.id)));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(rowCount);
+    }
+}
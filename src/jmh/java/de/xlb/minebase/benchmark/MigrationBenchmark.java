@@ -0,0 +1,58 @@
+package de.xlb.minebase.benchmark;
+
+import de.xlb.minebase.api.MineDb;
+import de.xlb.minebase.types.TableConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * migrateTable() on a filled players Table, every Invocation starts from a fresh Database
+ * addColumn is changed in place, changePrimaryKey rebuilds the Table
+ * ./gradlew jmh -Pjmh.includes=MigrationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class MigrationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rowCount;
+
+    @Param({"default", "balanced", "throughput"})
+    public String preset;
+
+    @Param({"addColumn", "changePrimaryKey"})
+    public String migration;
+
+    private File folder;
+    private MineDb db;
+    private TableConfig target;
+
+    @Setup(Level.Invocation)
+    public void setup() throws Exception {
+        folder = BenchmarkDb.tempFolder();
+        db = BenchmarkDb.open(folder, preset);
+        BenchmarkDb.fill(db, rowCount);
+
+        target = BenchmarkDb.players();
+        if ("addColumn".equals(migration)) {
+            target.addColumn("coins", TableConfig.ColTypes.INTEGER);
+        } else {
+            target.setPrimary("id", "world");
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws Exception {
+        BenchmarkDb.close(db, folder);
+    }
+
+    @Benchmark
+    public void migrateTable() {
+        db.migrateTable(target);
+    }
+}
@@ -1,23 +1,78 @@
 package de.xlb.minebase;
 
+import de.xlb.minebase.api.MineDb;
+import de.xlb.minebase.session.PlayerSessionManager;
+import de.xlb.minebase.utils.BlobCodec;
 import de.xlb.minebase.utils.Test;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.List;
+
 
 /**
  * Provides Database Classes
  */
-public final class Minebase extends JavaPlugin implements Listener {
+public final class Minebase extends JavaPlugin implements Listener, CommandExecutor {
+    private PlayerSessionManager sessionManager;
 
     @Override
     public void onEnable() {
         this.getServer().getPluginManager().registerEvents(this, this);
+        sessionManager = new PlayerSessionManager(getLogger(), PlayerSessionManager.DEFAULT_AUTOSAVE_MILLIS);
+        this.getServer().getPluginManager().registerEvents(sessionManager, this);
+        PluginCommand command = this.getCommand("minebase");
+        if (command != null) {
+            command.setExecutor(this);
+        }
         //new Test(getLogger(), getDataFolder());
     }
 
     @Override
     public void onDisable() {
+        if (sessionManager != null) {
+            sessionManager.close();
+        }
+        BlobCodec.releaseStreams();
+    }
+
+    /**
+     * Player Sessions, register Tables with sessionManager.register(db, table, "uuid")
+     * Dependent Plugins are disabled first, they should call unregister(db) before closing their Database
+     * @return PlayerSessionManager
+     */
+    public PlayerSessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    /**
+     * /minebase stats [reset], Query Metrics of all open Databases
+     */
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length == 0 || !args[0].equalsIgnoreCase("stats")) {
+            return false;
+        }
+        boolean reset = args.length > 1 && args[1].equalsIgnoreCase("reset");
 
+        if (MineDb.getOpenDatabases().isEmpty()) {
+            sender.sendMessage("No open databases");
+        }
+        for (MineDb db : MineDb.getOpenDatabases()) {
+            List<String> report = db.getMetricsReport();
+            if (report.isEmpty()) {
+                sender.sendMessage("Minebase " + db.getDbName() + ": metrics disabled");
+                continue;
+            }
+            report.forEach(sender::sendMessage);
+            if (reset) {
+                db.resetMetrics();
+            }
+        }
+        return true;
     }
 }
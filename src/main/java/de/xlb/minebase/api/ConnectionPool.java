@@ -0,0 +1,157 @@
+package de.xlb.minebase.api;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One Writer Connection and a Pool of read-only Connections
+ * Writes (and Reads on a Thread that holds the Writer, e.g. in a Transaction) use the Writer,
+ * other Reads borrow a Reader. Without Readers everything uses the Writer
+ * Every Connection comes with its own StatementCache and is used by one Thread at a Time
+ */
+class ConnectionPool {
+    //Vars
+    private final StatementCache writer;
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private final List<StatementCache> readers;
+    private final BlockingQueue<StatementCache> idleReaders;
+    private final long acquireTimeoutMillis;
+
+    /**
+     * Creates Pool
+     * @param writer
+     * @param readers              can be empty
+     * @param acquireTimeoutMillis Max Wait for a Connection
+     */
+    ConnectionPool(StatementCache writer, List<StatementCache> readers, long acquireTimeoutMillis) {
+        this.writer = writer;
+        this.readers = Collections.unmodifiableList(new ArrayList<>(readers));
+        this.idleReaders = new ArrayBlockingQueue<>(Math.max(1, readers.size()), true, readers);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    /**
+     * Runs an Action on the Writer, the Writer is locked for the calling Thread (reentrant)
+     * @param action
+     * @return Result of the Action
+     * @throws SQLException
+     */
+    <T> T write(ConnectionAction<T> action) throws SQLException {
+        lockWriter();
+        try {
+            return action.apply(writer);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * Runs an Action on a Reader
+     * Uses the Writer if the calling Thread holds it or no Readers exist
+     * @param action
+     * @return Result of the Action
+     * @throws SQLException
+     */
+    <T> T read(ConnectionAction<T> action) throws SQLException {
+        if (readers.isEmpty() || writerLock.isHeldByCurrentThread()) {
+            return write(action);
+        }
+        StatementCache reader = acquireReader();
+        try {
+            return action.apply(reader);
+        } finally {
+            releaseReader(reader);
+        }
+    }
+
+    /**
+     * Borrow a Reader, must be given back with releaseReader()
+     * @return StatementCache, null if the Pool has no Readers
+     * @throws SQLException on Timeout
+     */
+    StatementCache acquireReader() throws SQLException {
+        if (readers.isEmpty()) {
+            return null;
+        }
+        try {
+            StatementCache reader = idleReaders.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (reader == null) {
+                throw new SQLTimeoutException("No reader connection available after " + acquireTimeoutMillis + "ms");
+            }
+            return reader;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection", e);
+        }
+    }
+
+    /**
+     * Give a borrowed Reader back
+     * @param reader
+     */
+    void releaseReader(StatementCache reader) {
+        if (reader != null) {
+            idleReaders.offer(reader);
+        }
+    }
+
+    /**
+     * Does the calling Thread hold the Writer
+     * @return boolean
+     */
+    boolean holdsWriter() {
+        return writerLock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Writer Connection
+     * @return StatementCache
+     */
+    StatementCache getWriter() {
+        return writer;
+    }
+
+    /**
+     * Reader Connections
+     * @return List<StatementCache>
+     */
+    List<StatementCache> getReaders() {
+        return readers;
+    }
+
+    /**
+     * Closes all Statements and Connections
+     * @throws SQLException
+     */
+    void close() throws SQLException {
+        for (StatementCache reader : readers) {
+            reader.close();
+            reader.getConnection().close();
+        }
+        writer.close();
+        writer.getConnection().close();
+    }
+
+    private void lockWriter() throws SQLException {
+        try {
+            if (!writerLock.tryLock(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Writer connection not available after " + acquireTimeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer connection", e);
+        }
+    }
+
+    @FunctionalInterface
+    interface ConnectionAction<T> {
+        T apply(StatementCache connection) throws SQLException;
+    }
+}
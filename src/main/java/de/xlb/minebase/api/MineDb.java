@@ -1,13 +1,26 @@
 package de.xlb.minebase.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.xlb.minebase.entity.EntityCodec;
 import de.xlb.minebase.types.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Main Database Class
@@ -16,12 +29,42 @@ import java.util.logging.Logger;
 public class MineDb {
     //Const
     private final String SCHEMA_DEFAULT = "schema_default.json";
+    static final String DEFAULT_DATABASE = "data.db";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final String SCHEMA_TABLE = "minebase_schema";
+    private static final String INDEX_TABLE = "minebase_indexes";
+    private static final String TOKEN_BLOB = "blob";
+    private static final Pattern COLUMN_CONSTRAINT = Pattern.compile(
+            "\\b(CONSTRAINT|PRIMARY|NOT|NULL|UNIQUE|CHECK|DEFAULT|COLLATE|REFERENCES|GENERATED|AS)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern OTHER_CONSTRAINT = Pattern.compile(
+            "\\b(CONSTRAINT|PRIMARY|UNIQUE|CHECK|COLLATE|REFERENCES|GENERATED|AS)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NOT_NULL = Pattern.compile("\\bNOT\\s+NULL\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DEFAULT_VALUE = Pattern.compile("\\bDEFAULT\\s+", Pattern.CASE_INSENSITIVE);
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    //Weak, an Instance that is never closed doesn't stay alive (with its Plugin's ClassLoader) across Reloads
+    private static final Set<MineDb> OPEN_DATABASES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
     //Vars
     private final File pluginPath;
-    private Connection connection;
+    private final String dbName;
+    private ConnectionPool pool;
     private final Logger log;
+    private final ConnectionConfig connectionConfig;
     private Map<String, Map<String, Object>> schema;
+    private ScheduledExecutorService dbExecutor;
+    private ExecutorService readExecutor;
+    private Executor callbackExecutor = Runnable::run;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private final Map<String, TableConfig> tables = new ConcurrentHashMap<>();
+    private WriteBehindBuffer writeBehind;
+    private ScheduledFuture<?> writeBehindTask;
+    private final Map<String, RowCache> rowCaches = new ConcurrentHashMap<>();
+    private final Set<String> transactionTables = new HashSet<>();
+    private final Map<String, Duration> schemaTimings = new ConcurrentHashMap<>();
+    private volatile QueryMetrics metrics;
+    private volatile long slowQueryNanos = 0;
+    private ScheduledFuture<?> metricsTask;
 
     //LogColors
     public static final String ANSI_RESET = "\u001B[0m";
@@ -36,62 +79,2009 @@ public class MineDb {
 
     /**
      * Creates DB Instance
+     * Older Versions ignored dbName and always opened data.db: if dbName doesn't exist yet but data.db does,
+     * data.db is opened and a Warning is logged. Rename data.db to dbName to use the named File
      * @param log
      * @param pluginPath
      * @param dbName
      * @throws Exception
      */
     public MineDb(Logger log, File pluginPath, String dbName) throws Exception {
+        this(log, pluginPath, dbName, new ConnectionConfig());
+    }
+
+    /**
+     * Creates DB Instance with default Database data.db
+     * @param log
+     * @param pluginPath
+     * @throws Exception
+     */
+    public MineDb(Logger log, File pluginPath) throws Exception {
+        this(log, pluginPath, DEFAULT_DATABASE, new ConnectionConfig());
+    }
+
+    /**
+     * Creates DB Instance with tuned Connection
+     * Falls back to an existing data.db like MineDb(Logger, File, String)
+     * @param log
+     * @param pluginPath
+     * @param dbName
+     * @param connectionConfig ConnectionConfig.balanced()
+     * @throws Exception
+     */
+    public MineDb(Logger log, File pluginPath, String dbName, ConnectionConfig connectionConfig) throws Exception {
+        this(log, pluginPath, dbName, connectionConfig, true);
+    }
+
+    /**
+     * Creates DB Instance
+     * @param log
+     * @param pluginPath
+     * @param dbName
+     * @param connectionConfig
+     * @param legacyFallback open data.db if dbName doesn't exist, false if data.db belongs to another Instance (SchemaLoader)
+     * @throws Exception
+     */
+    //Registered as the last Step, the Registry only holds the Reference and reads nothing before the Instance is built
+    @SuppressWarnings("this-escape")
+    MineDb(Logger log, File pluginPath, String dbName, ConnectionConfig connectionConfig, boolean legacyFallback) throws Exception {
         this.log = log;
         this.pluginPath = pluginPath;
-        initDb(log, pluginPath, dbName);
+        this.dbName = dbName;
+        this.connectionConfig = connectionConfig != null ? connectionConfig : new ConnectionConfig();
+        initDb(log, pluginPath, dbName, legacyFallback);
+        OPEN_DATABASES.add(this);
+    }
+
+    /**
+     * Creates DB Instance with default Database data.db and tuned Connection
+     * @param log
+     * @param pluginPath
+     * @param connectionConfig ConnectionConfig.balanced()
+     * @throws Exception
+     */
+    public MineDb(Logger log, File pluginPath, ConnectionConfig connectionConfig) throws Exception {
+        this(log, pluginPath, DEFAULT_DATABASE, connectionConfig);
+    }
+
+    private void initDb(Logger log, File pluginPath, String dbName, boolean legacyFallback) throws  Exception{
+        //Check Folder
+        if (!pluginPath.exists()) {
+            pluginPath.mkdirs();
+        }
+
+        //Data of older Versions is in data.db whatever dbName was
+        File dbFile = new File(pluginPath, dbName);
+        File legacyFile = new File(pluginPath, DEFAULT_DATABASE);
+        if (legacyFallback && !dbFile.exists() && legacyFile.exists() && !dbName.equals(DEFAULT_DATABASE)) {
+            log.warning("Database " + dbName + " doesn't exist, opening " + DEFAULT_DATABASE
+                    + " which older versions used for every name. Rename it to " + dbName + " to use the named file");
+            dbFile = legacyFile;
+        }
+
+        //Create Connections, Writer first so the Journal Mode is set before Readers open the File
+        String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+        Connection writer = DriverManager.getConnection(url);
+        applyConnectionConfig(writer, false);
+
+        List<StatementCache> readers = new ArrayList<>();
+        Properties readOnly = new Properties();
+        readOnly.setProperty("open_mode", "1"); //SQLITE_OPEN_READONLY
+        for (int i = 0; i < connectionConfig.getReaderPoolSize(); i++) {
+            Connection reader = DriverManager.getConnection(url, readOnly);
+            applyConnectionConfig(reader, true);
+            readers.add(new StatementCache(reader, connectionConfig.getStatementCacheSize(), log));
+        }
+        this.pool = new ConnectionPool(new StatementCache(writer, connectionConfig.getStatementCacheSize(), log),
+                readers, connectionConfig.getAcquireTimeoutMillis());
+        log.info("Database connected (" + readers.size() + " reader connections)");
+
+        //Schema Hashes of the Tables, lets loadSchema() skip unchanged Tables
+        executeDdl("CREATE TABLE IF NOT EXISTS " + SCHEMA_TABLE
+                + " (table_name TEXT PRIMARY KEY, version INTEGER NOT NULL, hash TEXT NOT NULL, updated_at INTEGER NOT NULL)");
+        //Indexes created by reconcileIndexes(), only these are dropped when they aren't declared anymore
+        executeDdl("CREATE TABLE IF NOT EXISTS " + INDEX_TABLE + " (index_name TEXT PRIMARY KEY, table_name TEXT NOT NULL)");
+
+        //Create Executors, one Thread per Database serializes all async Writes, Reads run in parallel on the Readers
+        this.dbExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Minebase-" + dbName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (readers.isEmpty()) {
+            this.readExecutor = dbExecutor;
+        } else {
+            this.readExecutor = Executors.newFixedThreadPool(readers.size(), runnable -> {
+                Thread thread = new Thread(runnable, "Minebase-" + dbName + "-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Applies the PRAGMAs of the ConnectionConfig, page_size first because it only works before Tables exist
+     * Readers skip the PRAGMAs that write to the Database File
+     * @param conn
+     * @param reader
+     * @throws SQLException
+     */
+    private void applyConnectionConfig(Connection conn, boolean reader) throws SQLException {
+        ConnectionConfig conf = connectionConfig;
+        try (Statement stmt = conn.createStatement()) {
+            if (conf.getPageSize() != null && !reader) {
+                stmt.execute("PRAGMA page_size = " + conf.getPageSize());
+            }
+            if (conf.getJournalMode() != null && !reader) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = " + conf.getJournalMode().name())) {
+                    if (rs.next() && !rs.getString(1).equalsIgnoreCase(conf.getJournalMode().name())) {
+                        log.warning("Journal mode " + conf.getJournalMode() + " not applied, database uses " + rs.getString(1));
+                    }
+                }
+            }
+            if (conf.getSynchronous() != null) {
+                stmt.execute("PRAGMA synchronous = " + conf.getSynchronous().name());
+            }
+            if (conf.getCacheSize() != null) {
+                stmt.execute("PRAGMA cache_size = " + conf.getCacheSize());
+            }
+            if (conf.getMmapSize() != null) {
+                stmt.execute("PRAGMA mmap_size = " + conf.getMmapSize());
+            }
+            if (conf.getTempStore() != null) {
+                stmt.execute("PRAGMA temp_store = " + conf.getTempStore().name());
+            }
+            if (conf.getBusyTimeout() != null) {
+                stmt.execute("PRAGMA busy_timeout = " + conf.getBusyTimeout());
+            }
+        }
+    }
+
+    /**
+     * Call on Shutdown to impede Locks
+     * Waits for queued async Queries and flushes the Write-Behind Buffer before the Connection is closed
+     * @throws SQLException
+     */
+    public void close() throws SQLException {
+        OPEN_DATABASES.remove(this);
+        if (writeBehindTask != null) {
+            writeBehindTask.cancel(false);
+        }
+        if (metricsTask != null) {
+            metricsTask.cancel(false);
+        }
+        dbExecutor.shutdown();
+        readExecutor.shutdown();
+        try {
+            if (!dbExecutor.awaitTermination(30, TimeUnit.SECONDS) || !readExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warning("Async queries did not finish in time, closing anyway");
+                dbExecutor.shutdownNow();
+                readExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            dbExecutor.shutdownNow();
+            readExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+        pool.close();
+    }
+
+    /**
+     * Executor on which the Results of async Queries are delivered
+     * Default: the Database Thread
+     * Bukkit Main Thread: db.setCallbackExecutor(task -> Bukkit.getScheduler().runTask(plugin, task))
+     * @param callbackExecutor
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor != null ? callbackExecutor : Runnable::run;
+    }
+
+    /**
+     * Rows per Transaction for Multi Row Inserts
+     * @param batchSize
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Enables the Write-Behind Buffer, Writes through the Buffer are coalesced per Primary Key
+     * and flushed in one Transaction
+     * @param flushIntervalMillis Timer Interval
+     * @param maxPendingRows      Flush when this many Rows are pending
+     * @return WriteBehindBuffer
+     */
+    public synchronized WriteBehindBuffer enableWriteBehind(long flushIntervalMillis, int maxPendingRows) {
+        if (writeBehind == null) {
+            writeBehind = new WriteBehindBuffer(this, log, maxPendingRows);
+            writeBehindTask = dbExecutor.scheduleWithFixedDelay(writeBehind::flush,
+                    flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return writeBehind;
+    }
+
+    /**
+     * Write-Behind Buffer, null if not enabled
+     * @return WriteBehindBuffer
+     */
+    public WriteBehindBuffer getWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Enables the Primary Key Cache of a Table, used by selectByKey
+     * insert/update/delete through this Instance invalidate cached Rows
+     * @param table
+     * @param maxSize   Max cached Rows
+     * @param ttlMillis Time a Row is served from Cache, 0 = unlimited
+     * @return RowCache
+     */
+    public RowCache enableRowCache(String table, int maxSize, long ttlMillis) {
+        return rowCaches.computeIfAbsent(table, k -> new RowCache(maxSize, ttlMillis));
+    }
+
+    /**
+     * Primary Key Cache of a Table, provides Hit Ratio
+     * @param table
+     * @return RowCache, null if not enabled
+     */
+    public RowCache getRowCache(String table) {
+        return rowCaches.get(table);
+    }
+
+    /**
+     * Enables Query Metrics
+     * @param logIntervalMillis Interval of the periodic Metrics Log, 0 = no Log
+     * @return QueryMetrics
+     */
+    public synchronized QueryMetrics enableMetrics(long logIntervalMillis) {
+        if (metrics == null) {
+            metrics = new QueryMetrics();
+            if (logIntervalMillis > 0) {
+                metricsTask = dbExecutor.scheduleWithFixedDelay(() -> getMetricsReport().forEach(log::info),
+                        logIntervalMillis, logIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Logs Queries that take longer than the Threshold with SQL, Parameters, Caller and EXPLAIN QUERY PLAN
+     * @param thresholdMillis 0 disables the Log
+     */
+    public void setSlowQueryThreshold(long thresholdMillis) {
+        this.slowQueryNanos = Math.max(0, thresholdMillis) * 1_000_000L;
+    }
+
+    /**
+     * Query Metrics, null if not enabled
+     * @return QueryMetrics
+     */
+    public QueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Metrics as Text, one Line per Operation and Table, Cache Counters first. Rates are per Second since the last Reset
+     * @return List<String>, empty if Metrics are not enabled
+     */
+    public List<String> getMetricsReport() {
+        QueryMetrics current = metrics;
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        long hits = pool.getWriter().getHits();
+        long misses = pool.getWriter().getMisses();
+        for (StatementCache reader : pool.getReaders()) {
+            hits += reader.getHits();
+            misses += reader.getMisses();
+        }
+        //Rates cover the Time since enableMetrics() or the last resetMetrics()
+        double seconds = Math.max(1, System.currentTimeMillis() - current.getSince()) / 1000.0;
+        List<String> report = new ArrayList<>();
+        report.add(String.format("Minebase %s, last %.1fs: statement cache %d hits / %d misses", dbName, seconds, hits, misses));
+        for (Map.Entry<String, RowCache> rowCache : rowCaches.entrySet()) {
+            report.add("  row cache " + rowCache.getKey() + ": " + rowCache.getValue().getHits() + " hits / "
+                    + rowCache.getValue().getMisses() + " misses");
+        }
+        for (QueryMetrics.OperationStats stats : current.snapshot()) {
+            report.add(String.format("  %s, %.1f calls/s", stats, stats.getCount() / seconds));
+        }
+        return report;
+    }
+
+    /**
+     * Clear the Query Metrics and the Hit/Miss Counters of the Statement and Row Caches, so a Report covers the same Period
+     */
+    public void resetMetrics() {
+        QueryMetrics current = metrics;
+        if (current != null) {
+            current.reset();
+        }
+        pool.getWriter().resetStats();
+        for (StatementCache reader : pool.getReaders()) {
+            reader.resetStats();
+        }
+        for (RowCache rowCache : rowCaches.values()) {
+            rowCache.resetStats();
+        }
+    }
+
+    /**
+     * All MineDb Instances that are not closed, e.g. for a Stats Command
+     * @return Collection<MineDb>
+     */
+    public static Collection<MineDb> getOpenDatabases() {
+        synchronized (OPEN_DATABASES) {
+            return List.copyOf(OPEN_DATABASES);
+        }
+    }
+
+    /**
+     * Cache of PreparedStatements of the Writer Connection, provides Hit/Miss Counters
+     * @return StatementCache
+     */
+    public StatementCache getStatementCache() {
+        return pool.getWriter();
+    }
+
+    /**
+     * Caches of PreparedStatements of the Reader Connections
+     * @return List<StatementCache>, empty without Readers
+     */
+    public List<StatementCache> getReaderStatementCaches() {
+        return pool.getReaders();
+    }
+    //##################################################################################################################
+    //################################################CRUD##############################################################
+    //##################################################################################################################
+
+    /**
+     *  Select Row/Rows with a parameterized Condition, select() takes raw String Conditions
+     * @param table     users
+     * @param columns   ["id", "name", "age"]
+     * @param condition where(gt("age", 18), notNull("name"))
+     * @param sort      ["name desc", "age asc"]
+     * @return ResultSet
+     */
+    public ReturnSet selectWhere(String table, String[] columns, Condition condition, String[] sort) {
+        return selectWhere(table, columns, condition, sort, 0, 0);
+    }
+
+    /**
+     *  Select a Slice of the sorted Rows
+     *  Deep Offsets still read all skipped Rows, use selectPage() to page through large Tables
+     * @param table     users
+     * @param columns   ["id", "name", "age"]
+     * @param condition where(gt("age", 18), notNull("name"))
+     * @param sort      ["name desc", "age asc"]
+     * @param limit     max Rows, 0 for all
+     * @param offset    skipped Rows
+     * @return ResultSet
+     */
+    public ReturnSet selectWhere(String table, String[] columns, Condition condition, String[] sort, int limit, int offset) {
+        ReturnSet returnSet = new ReturnSet();
+        long start = metricsStart();
+        boolean limited = limit > 0 || offset > 0;
+        String sql = buildSelectSql(table, columns, condition, sort, limited);
+
+        try {
+            pool.read(conn -> withStatement(conn, sql, pstmt -> {
+                int paramIndex = bindParams(pstmt, 1, condition);
+                if (limited) {
+                    pstmt.setLong(paramIndex++, limit > 0 ? limit : -1);
+                    pstmt.setLong(paramIndex, Math.max(0, offset));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    var meta = rs.getMetaData();
+                    int columnCount = meta.getColumnCount();
+                    String[] columnNames = new String[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        columnNames[i] = meta.getColumnName(i + 1);
+                    }
+                    returnSet.setColumns(columnNames);
+
+                    while (rs.next()) {
+                        int row = returnSet.addRow();
+                        for (int i = 0; i < columnCount; i++) {
+                            returnSet.setValue(row, i, rs.getObject(i + 1));
+                        }
+                    }
+                }
+                return null;
+            }));
+
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+
+        } catch (SQLException e) {
+            log.severe("Error executing SELECT query: " + e.getMessage());
+            returnSet.setError(errorOf(e), e);
+        }
+        Object[] params = queryParams(null, null, condition);
+        if (params != null && limited) {
+            params = Arrays.copyOf(params, params.length + 2);
+            params[params.length - 2] = limit > 0 ? limit : -1;
+            params[params.length - 1] = Math.max(0, offset);
+        }
+        record(QueryMetrics.Operation.SELECT, table, start, returnSet.resultSize(), returnSet, sql, params);
+        return returnSet;
+    }
+
+    /**
+     *  Select one Page of the sorted Rows, continuing after the last Row of the previous Page (Keyset Pagination)
+     *  The Sort Keys of the last Row are carried in ReturnSet.getNextPageToken(), every Page costs the same
+     *  regardless of its Depth if an Index covers the Sort. Primary Keys are appended to the Sort to make it unique,
+     *  Sort Columns missing in columns are selected too. Sort Columns should be NOT NULL
+     * @param table     users
+     * @param columns   ["id", "name", "age"]
+     * @param condition where(gt("age", 18), notNull("name"))
+     * @param sort      ["age desc"], plain Columns with asc/desc
+     * @param pageSize  Rows per Page
+     * @param pageToken null for the first Page, getNextPageToken() of the previous Page for the next one
+     * @return ReturnSet, getNextPageToken() is null on the last Page
+     */
+    public ReturnSet selectPage(String table, String[] columns, Condition condition, String[] sort,
+                                int pageSize, String pageToken) {
+        ReturnSet returnSet = new ReturnSet();
+        if (pageSize <= 0) {
+            log.severe("Page size must be positive: " + pageSize);
+            returnSet.setError(ReturnSet.ReturnErrors.NO_DATA);
+            return returnSet;
+        }
+
+        //Sort Keys
+        List<String> keys = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        if (sort != null) {
+            for (String entry : sort) {
+                String[] parts = entry.trim().split("\\s+");
+                if (parts.length > 2 || (parts.length == 2 && !parts[1].equalsIgnoreCase("asc")
+                        && !parts[1].equalsIgnoreCase("desc"))) {
+                    log.severe("Unsupported sort for keyset pagination: " + entry);
+                    returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN);
+                    return returnSet;
+                }
+                keys.add(parts[0]);
+                descending.add(parts.length == 2 && parts[1].equalsIgnoreCase("desc"));
+            }
+        }
+        for (String primaryKey : getPrimaryKeys(table)) {
+            if (!keys.contains(primaryKey)) {
+                keys.add(primaryKey);
+                descending.add(false);
+            }
+        }
+        if (keys.isEmpty()) {
+            log.severe("Keyset pagination needs a sort or a primary key on " + table);
+            returnSet.setError(ReturnSet.ReturnErrors.NO_PRIMARY_KEY);
+            return returnSet;
+        }
+
+        String[] pageSort = new String[keys.size()];
+        for (int i = 0; i < pageSort.length; i++) {
+            pageSort[i] = keys.get(i) + (descending.get(i) ? " DESC" : " ASC");
+        }
+        String[] pageColumns = columns;
+        if (columns != null && columns.length > 0) {
+            Set<String> selected = new LinkedHashSet<>(Arrays.asList(columns));
+            selected.addAll(keys);
+            pageColumns = selected.toArray(new String[0]);
+        }
+
+        //Continue after the last Row
+        Condition pageCondition = condition;
+        if (pageToken != null) {
+            Object[] after = decodePageToken(pageToken, pageSort);
+            if (after == null) {
+                log.severe("Invalid page token for " + table + " sorted by " + String.join(", ", pageSort));
+                returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN);
+                return returnSet;
+            }
+            pageCondition = keysetCondition(keys, descending, after).and(condition);
+        }
+
+        //One Row more to know if there is a next Page
+        ReturnSet page = selectWhere(table, pageColumns, pageCondition, pageSort, pageSize + 1, 0);
+        if (page.getError() != ReturnSet.ReturnErrors.NONE) {
+            return page;
+        }
+        //The Token is read from the Result, "t.score" or "lower(name)" have no Result Column of that Name
+        for (String key : keys) {
+            if (page.getColumnIndex(key) < 0) {
+                log.severe("Sort key " + key + " of " + table + " is not a result column, sort by plain column names");
+                returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN);
+                return returnSet;
+            }
+        }
+        if (page.resultSize() > pageSize) {
+            page.truncate(pageSize);
+            Object[] last = new Object[keys.size()];
+            for (int i = 0; i < last.length; i++) {
+                last[i] = page.getValue(pageSize - 1, keys.get(i));
+            }
+            page.setNextPageToken(encodePageToken(pageSort, last));
+        }
+        return page;
+    }
+
+    /**
+     * Select one Row by its Primary Key, served from the RowCache if enabled
+     * @param table     users
+     * @param keyValues [uuid] in Order of the Primary Keys
+     * @return ReturnSet
+     */
+    public ReturnSet selectByKey(String table, Object... keyValues) {
+        String[] primaryKeys = getPrimaryKeys(table);
+        if (primaryKeys.length == 0 || keyValues == null || keyValues.length != primaryKeys.length) {
+            log.severe("Primary key values don't match primary keys of " + table);
+            ReturnSet returnSet = new ReturnSet();
+            returnSet.setError(ReturnSet.ReturnErrors.NO_PRIMARY_KEY);
+            return returnSet;
+        }
+
+        List<Object> key = Arrays.asList(keyValues);
+        RowCache cache = rowCaches.get(table);
+        long generation = 0;
+        if (cache != null) {
+            ReturnSet cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            generation = cache.generation();
+        }
+
+        Condition condition = null;
+        for (int i = 0; i < primaryKeys.length; i++) {
+            Condition eq = Condition.eq(primaryKeys[i], keyValues[i]);
+            condition = condition == null ? eq : condition.and(eq);
+        }
+
+        ReturnSet returnSet = selectWhere(table, null, condition, null);
+        if (cache != null && returnSet.getError() == ReturnSet.ReturnErrors.NONE && returnSet.resultSize() == 1) {
+            cache.put(key, returnSet, generation);
+        }
+        return returnSet;
+    }
+
+    /**
+     * Select Rows lazily, Rows are read while the Stream is consumed
+     * The Stream holds an open Statement and a Reader Connection and must be closed (try-with-resources)
+     * Without Reader Connections (or inside a Transaction) all Rows are read at once under the Writer Lock,
+     * the shared Writer Connection can't stay open while the Caller consumes the Stream
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @param fetchSize Rows fetched per Round Trip
+     * @return Stream of Rows
+     * @throws IllegalStateException if the Query fails, Cause is the SQLException
+     */
+    public Stream<Map<String, String>> selectStream(String table, String[] columns, Condition condition, String[] sort, int fetchSize) {
+        String sql = buildSelectSql(table, columns, condition, sort, false);
+        PreparedStatement pstmt = null;
+        StatementCache reader = null;
+        try {
+            reader = pool.holdsWriter() ? null : pool.acquireReader();
+            if (reader == null) {
+                return pool.write(conn -> {
+                    try (PreparedStatement stmt = prepareStream(conn.getConnection(), sql, condition, fetchSize);
+                         ResultSet rs = stmt.executeQuery()) {
+                        String[] columnNames = columnNames(rs);
+                        List<Map<String, String>> rows = new ArrayList<>();
+                        while (rs.next()) {
+                            rows.add(streamRow(rs, columnNames));
+                        }
+                        return rows;
+                    }
+                }).stream();
+            }
+            pstmt = prepareStream(reader.getConnection(), sql, condition, fetchSize);
+            ResultSet rs = pstmt.executeQuery();
+            PreparedStatement statement = pstmt;
+            StatementCache borrowed = reader;
+            String[] columnNames = columnNames(rs);
+
+            return StreamSupport.stream(new Spliterators.AbstractSpliterator<Map<String, String>>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Map<String, String>> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(streamRow(rs, columnNames));
+                        return true;
+                    } catch (SQLException e) {
+                        log.severe("Error reading SELECT stream: " + e.getMessage());
+                        throw new IllegalStateException("Error reading SELECT stream", e);
+                    }
+                }
+            }, false).onClose(() -> {
+                closeQuietly(rs, statement);
+                pool.releaseReader(borrowed);
+            });
+        } catch (SQLException e) {
+            log.severe("Error executing SELECT stream: " + e.getMessage());
+            closeQuietly(null, pstmt);
+            pool.releaseReader(reader);
+            throw new IllegalStateException("Error executing SELECT stream", e);
+        }
+    }
+
+    private PreparedStatement prepareStream(Connection conn, String sql, Condition condition, int fetchSize) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        try {
+            pstmt.setFetchSize(Math.max(1, fetchSize));
+            bindParams(pstmt, 1, condition);
+            return pstmt;
+        } catch (SQLException e) {
+            closeQuietly(null, pstmt);
+            throw e;
+        }
+    }
+
+    private static String[] columnNames(ResultSet rs) throws SQLException {
+        var meta = rs.getMetaData();
+        String[] columnNames = new String[meta.getColumnCount()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = meta.getColumnName(i + 1);
+        }
+        return columnNames;
+    }
+
+    private static Map<String, String> streamRow(ResultSet rs, String[] columnNames) throws SQLException {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            row.put(columnNames[i], rs.getString(i + 1));
+        }
+        return row;
+    }
+
+    /**
+     * Select Rows lazily and pass each Row to the Callback
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @param rowCallback
+     * @return ReturnSet without Rows
+     */
+    public ReturnSet selectEach(String table, String[] columns, Condition condition, String[] sort,
+                                Consumer<Map<String, String>> rowCallback) {
+        ReturnSet returnSet = new ReturnSet();
+        try (Stream<Map<String, String>> rows = selectStream(table, columns, condition, sort, DEFAULT_FETCH_SIZE)) {
+            rows.forEach(rowCallback);
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        } catch (IllegalStateException e) {
+            Throwable cause = e.getCause();
+            returnSet.setError(cause instanceof SQLException ? errorOf((SQLException) cause) : ReturnSet.ReturnErrors.UNKNOWN, e);
+        }
+        return returnSet;
+    }
+
+    /**
+     * Insert one Row
+     * @param table users
+     * @param data  [id=1, name=Smith, age=30, ...]
+     * @return ResultSet
+     */
+    public ReturnSet insert(String table, InsertRow data) {
+        ReturnSet returnSet = new ReturnSet();
+        long start = metricsStart();
+        if (data == null || data.isEmpty()) {
+            log.severe("No data provided for insert operation");
+            returnSet.setError(ReturnSet.ReturnErrors.NO_DATA);
+            return returnSet;
+        }
+
+        String[] columns = data.getColumns();
+        String sql = buildInsertSql(table, columns);
+
+        try {
+            returnSet.setChangedRows(pool.write(conn -> withStatement(conn, sql, pstmt -> {
+                //Set Value
+                bindInsertRow(pstmt, data, columns);
+
+                return pstmt.executeUpdate();
+            })));
+            invalidateCachedRows(table, rowValues(data.getColumns(), data::getValue));
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        } catch (SQLException e) {
+            log.severe("Error executing INSERT query: " + e.getMessage());
+            returnSet.setError(errorOf(e), e);
+        }
+        record(QueryMetrics.Operation.INSERT, table, start, returnSet.getChangedRows(), returnSet,
+                sql, queryParams(columns, data::getValue, null));
+        return returnSet;
+    }
+
+    /**
+     * Insert one Row, or update it if a Row with the same Conflict Columns exists
+     * Columns of the Row that are not Conflict Columns are overwritten, other Columns keep their Value
+     * @param table           users
+     * @param data            [id=1, name=Smith, age=30, ...]
+     * @param conflictColumns Columns of a Primary Key or Unique Index, default the Primary Keys of the Table
+     * @return ResultSet
+     */
+    public ReturnSet upsert(String table, InsertRow data, String... conflictColumns) {
+        ReturnSet returnSet = new ReturnSet();
+        long start = metricsStart();
+        if (data == null || data.isEmpty()) {
+            log.severe("No data provided for upsert operation");
+            returnSet.setError(ReturnSet.ReturnErrors.NO_DATA);
+            return returnSet;
+        }
+        String[] conflict = conflictColumns(table, conflictColumns);
+        if (conflict.length == 0) {
+            log.severe("No conflict columns for upsert into " + table);
+            returnSet.setError(ReturnSet.ReturnErrors.NO_PRIMARY_KEY);
+            return returnSet;
+        }
+
+        String[] columns = data.getColumns();
+        String sql = buildUpsertSql(table, columns, conflict);
+
+        try {
+            returnSet.setChangedRows(pool.write(conn -> withStatement(conn, sql, pstmt -> {
+                bindInsertRow(pstmt, data, columns);
+                return pstmt.executeUpdate();
+            })));
+            invalidateCachedRows(table, rowValues(columns, data::getValue));
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        } catch (SQLException e) {
+            log.severe("Error executing UPSERT query: " + e.getMessage());
+            returnSet.setError(errorOf(e), e);
+        }
+        record(QueryMetrics.Operation.UPSERT, table, start, returnSet.getChangedRows(), returnSet,
+                sql, queryParams(columns, data::getValue, null));
+        return returnSet;
+    }
+
+    /**
+     *  Update Rows under the defined Condition
+     * @param table     users
+     * @param data      [name=Smith, age=31, ...]
+     * @param condition where(lt("age", 50), eq("id", 1))
+     * @return ResultSet
+     */
+    public ReturnSet updateWhere(String table, UpdateRow data, Condition condition) {
+        ReturnSet returnSet = new ReturnSet();
+        long start = metricsStart();
+        if (data == null || data.isEmpty()) {
+            log.severe("No data provided for update operation");
+            returnSet.setError(ReturnSet.ReturnErrors.NO_DATA);
+            return returnSet;
+        }
+
+        String[] columns = data.getColumns();
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+
+
+        //Columns
+        StringJoiner columnJoin = new StringJoiner(", ");
+        for (String col : columns) {
+            columnJoin.add(col+ " = ?");
+        }
+        sql.append(columnJoin);
+
+        // Add WHERE conditions
+        appendWhere(sql, condition);
+
+        try {
+            returnSet.setChangedRows(pool.write(conn -> withStatement(conn, sql.toString(), pstmt -> {
+                int paramIndex = 1;
+
+                //Set Value
+                for (String col : columns) {
+                    bindValue(pstmt, paramIndex++, data.getValue(col));
+                }
+                bindParams(pstmt, paramIndex, condition);
+
+                return pstmt.executeUpdate();
+            })));
+            invalidateCachedRows(table, condition != null ? condition.getEqualities() : Collections.emptyMap(), columns);
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        } catch (SQLException e) {
+            log.severe("Error executing UPDATE query: " + e.getMessage());
+            returnSet.setError(errorOf(e), e);
+        }
+        record(QueryMetrics.Operation.UPDATE, table, start, returnSet.getChangedRows(), returnSet,
+                sql.toString(), queryParams(columns, data::getValue, condition));
+        return returnSet;
+    }
+
+    /**
+     * Delete Rows under the defined Condition
+     * @param table     users
+     * @param condition where(gt("age", 150), notNull("name"))
+     * @return ResultSet
+     */
+    public ReturnSet deleteWhere(String table, Condition condition) {
+        ReturnSet returnSet = new ReturnSet();
+        long start = metricsStart();
+        StringBuilder sql = new StringBuilder("DELETE FROM ")
+                .append(table);
+
+        // Add WHERE conditions
+        if (condition == null) {
+            log.warning("Executing DELETE without WHERE condition on table: " + table);
+        }
+        appendWhere(sql, condition);
+
+        try {
+            returnSet.setChangedRows(pool.write(conn -> withStatement(conn, sql.toString(), pstmt -> {
+                bindParams(pstmt, 1, condition);
+                return pstmt.executeUpdate();
+            })));
+            invalidateCachedRows(table, condition != null ? condition.getEqualities() : Collections.emptyMap());
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        } catch (SQLException e) {
+            log.severe("Error executing DELETE query: " + e.getMessage());
+            returnSet.setError(errorOf(e), e);
+        }
+        record(QueryMetrics.Operation.DELETE, table, start, returnSet.getChangedRows(), returnSet,
+                sql.toString(), queryParams(null, null, condition));
+        return returnSet;
+    }
+
+    //##################################################################################################################
+    //################################################DDL###############################################################
+    //##################################################################################################################
+
+    /**
+     * Doesn't create Table when Table exists, even if Tableschema is different
+     * The Schema Hash is only stored for a new Table, so loadSchema() still checks and migrates an existing one
+     * @param conf
+     */
+    public void createTable(TableConfig conf){
+
+        String tableName = conf.getTableName();
+        long start = metricsStart();
+        boolean created;
+
+        try {
+            created = pool.write(conn -> {
+                boolean exists = !getTableInfo(tableName).columns.isEmpty();
+                executeDdl(buildCreateTableSql(tableName, conf));
+                return !exists;
+            });
+            tables.put(tableName, conf);
+            log.info(ANSI_GREEN + "Created/Checked Table: "+tableName + ANSI_RESET);
+        }catch (SQLException e){
+            log.severe("Error creating Table: " + e.getMessage());
+            record(QueryMetrics.Operation.DDL, tableName, start, 0, true);
+            return;
+        }
+        boolean indexed = reconcileIndexes(conf);
+        if (created && indexed) {
+            storeSchemaHash(conf);
+        }
+        record(QueryMetrics.Operation.DDL, tableName, start, 0, !indexed);
+    }
+
+    /**
+     * Brings the Indexes of a Table in line with the TableConfig
+     * Missing Indexes are created, changed Indexes are recreated and Indexes Minebase declared before but that aren't
+     * declared anymore are dropped. Indexes created by Hand or other Tools and those of Primary Keys and UNIQUE Columns
+     * are left alone
+     * @param conf
+     * @return boolean, false if an Index couldn't be read, created or dropped
+     */
+    public boolean reconcileIndexes(TableConfig conf) {
+        String tableName = conf.getTableName();
+        try {
+            pool.write(conn -> {
+                Map<String, String> existing = getExistingIndexes(tableName);
+                Set<String> owned = getOwnedIndexes(tableName);
+                Set<String> declared = new HashSet<>();
+
+                for (Map<String, Object> index : Optional.ofNullable(conf.getIndexes()).orElse(Collections.emptyList())) {
+                    String indexName = indexName(tableName, index);
+                    String definition = normalizeIndexSql(indexSql(tableName, indexName, index));
+                    declared.add(indexName);
+
+                    if (!owned.contains(indexName)) {
+                        executeUpdate("INSERT OR REPLACE INTO " + INDEX_TABLE + " (index_name, table_name) VALUES (?, ?)",
+                                new Object[]{indexName, tableName});
+                    }
+                    String current = existing.get(indexName);
+                    if (definition.equals(current)) {
+                        continue;
+                    }
+                    if (current != null) {
+                        executeDdl("DROP INDEX IF EXISTS " + indexName);
+                    }
+                    executeDdl(indexSql(tableName, indexName, index));
+                    log.info(ANSI_GREEN + "Created Index: " + indexName + ANSI_RESET);
+                }
+
+                for (String indexName : owned) {
+                    if (!declared.contains(indexName)) {
+                        executeDdl("DROP INDEX IF EXISTS " + indexName);
+                        executeUpdate("DELETE FROM " + INDEX_TABLE + " WHERE index_name = ?", new Object[]{indexName});
+                        if (existing.containsKey(indexName)) {
+                            log.info(ANSI_RED + "Dropped Index: " + indexName + ANSI_RESET);
+                        }
+                    }
+                }
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            log.severe("Error creating Indexes of " + tableName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public void deleteTable(String tableName) {
+        String sql = "DROP TABLE IF EXISTS " + tableName + ";";
+        long start = metricsStart();
+
+        try {
+            executeDdl(sql);
+            executeUpdate("DELETE FROM " + SCHEMA_TABLE + " WHERE table_name = ?", new Object[]{tableName});
+            executeUpdate("DELETE FROM " + INDEX_TABLE + " WHERE table_name = ?", new Object[]{tableName});
+            tables.remove(tableName);
+            invalidateCachedRows(tableName, Collections.emptyMap());
+            log.info(ANSI_RED + "Deleted Table: " + tableName + ANSI_RESET);
+            record(QueryMetrics.Operation.DDL, tableName, start, 0, false);
+        } catch (SQLException e) {
+            log.severe("Error deleting Table: " + e.getMessage());
+            record(QueryMetrics.Operation.DDL, tableName, start, 0, true);
+        }
+    }
+
+    /**
+     * Config of a Table created by this Instance
+     * @param tableName
+     * @return TableConfig, null if unknown
+     */
+    public TableConfig getTableConfig(String tableName) {
+        return tables.get(tableName);
+    }
+
+    /**
+     * Migrates an existing table to match the given schema.
+     * Added, renamed (Column Attribute "rename_from") and removed Columns are changed in place with ALTER TABLE.
+     * Changed Types, Constraints or Primary Keys rebuild the Table, the Rebuild runs in one Transaction.
+     * New NOT NULL Columns need a DEFAULT, otherwise the Migration is rejected.
+     * Indexes are reconciled afterwards
+     *
+     * @param conf Configuration for the table schema.
+     */
+    public void migrateTable(TableConfig conf) {
+        migrateTable(conf, null);
+    }
+
+    /**
+     * Migrates a Table
+     * @param conf
+     * @param existing Live Table, null to read it
+     */
+    private void migrateTable(TableConfig conf, TableInfo existing) {
+        String tableName = conf.getTableName();
+        long start = metricsStart();
+        try {
+            //Hold the Writer so no Write hits the Table while it is migrated
+            pool.write(conn -> {
+                applyMigration(conf, existing != null ? existing : getTableInfo(tableName));
+                return null;
+            });
+        } catch (SQLException e) {
+            log.severe("Migration failed for table '" + tableName + "': " + e.getMessage());
+            record(QueryMetrics.Operation.DDL, tableName, start, 0, true);
+            return;
+        }
+        //A failed Index is retried on the next loadSchema()
+        boolean indexed = reconcileIndexes(conf);
+        if (indexed) {
+            storeSchemaHash(conf);
+        }
+        record(QueryMetrics.Operation.DDL, tableName, start, 0, !indexed);
+    }
+
+    private void applyMigration(TableConfig conf, TableInfo live) throws SQLException {
+        String tableName = conf.getTableName();
+        List<Map<String, String>> newColumns = conf.getTableColumns();
+        Set<String> newPrimaryKeys = new HashSet<>(Arrays.asList(Optional.ofNullable(conf.getPrimaryKeys()).orElse(new String[0])));
+
+        log.info(ANSI_PURPLE + "Start Migration" + ANSI_RESET);
+        Map<String, String> existingColumns = live.columns;
+        Set<String> existingPrimaryKeys = live.primaryKeys;
+
+        if (schemasMatch(live, newColumns, newPrimaryKeys)) {
+            log.info(ANSI_PURPLE + "Table '" + tableName + "' has no schema changes. Skipping migration." + ANSI_RESET);
+            return;
+        }
+
+        //Plan: new Column -> old Column it is filled from
+        Map<String, String> sources = new LinkedHashMap<>();
+        List<String> alterations = new ArrayList<>();
+        boolean rebuild = !existingPrimaryKeys.equals(newPrimaryKeys);
+
+        for (Map<String, String> col : newColumns) {
+            String name = col.get("name");
+            String type = col.get("type").toUpperCase();
+            String renameFrom = col.get("rename_from");
+
+            if (existingColumns.containsKey(name)) {
+                sources.put(name, name);
+                rebuild |= !columnMatches(live, name, col.get("type"));
+            } else if (renameFrom != null && existingColumns.containsKey(renameFrom) && !sources.containsValue(renameFrom)) {
+                sources.put(name, renameFrom);
+                rebuild |= !columnMatches(live, renameFrom, col.get("type"));
+                alterations.add("ALTER TABLE " + tableName + " RENAME COLUMN " + renameFrom + " TO " + name);
+            } else {
+                //SQLite can't fill existing Rows, ADD COLUMN and the Rebuild would both fail
+                if (type.matches(".*\\bNOT\\s+NULL\\b.*") && !type.matches(".*\\bDEFAULT\\b.*")) {
+                    throw new SQLException("New column '" + name + "' is NOT NULL without a DEFAULT, add a DEFAULT for existing rows");
+                }
+                rebuild |= newPrimaryKeys.contains(name);
+                alterations.add("ALTER TABLE " + tableName + " ADD COLUMN " + name + " " + col.get("type"));
+            }
+        }
+        for (String existing : existingColumns.keySet()) {
+            if (!sources.containsValue(existing)) {
+                //DROP COLUMN fails on indexed Columns, reconcileIndexes() recreates declared Indexes afterwards
+                for (String index : getIndexesOnColumn(tableName, existing)) {
+                    alterations.add("DROP INDEX IF EXISTS " + index);
+                }
+                alterations.add("ALTER TABLE " + tableName + " DROP COLUMN " + existing);
+            }
+        }
+
+        if (!rebuild) {
+            try {
+                runInTransaction(() -> {
+                    for (String alteration : alterations) {
+                        executeDdl(alteration);
+                        log.info(ANSI_PURPLE + alteration + ANSI_RESET);
+                    }
+                });
+                tables.put(tableName, conf);
+                invalidateCachedRows(tableName, Collections.emptyMap());
+                log.info(ANSI_PURPLE + "Table '" + tableName + "' successfully migrated in place." + ANSI_RESET);
+                return;
+            } catch (SQLException e) {
+                //e.g. DROP COLUMN of an indexed Column
+                log.warning("In place migration of '" + tableName + "' not possible, rebuilding: " + e.getMessage());
+            }
+        }
+
+        String newTable = "tmp_migrate_" + tableName + "_" + System.currentTimeMillis();
+        String targetColumns = String.join(", ", sources.keySet());
+        String sourceColumns = String.join(", ", sources.values());
+        runInTransaction(() -> {
+            executeDdl(buildCreateTableSql(newTable, conf));
+            if (!sources.isEmpty()) {
+                executeDdl("INSERT INTO " + newTable + " (" + targetColumns + ") SELECT " + sourceColumns + " FROM " + tableName);
+            }
+            executeDdl("DROP TABLE " + tableName);
+            executeDdl("ALTER TABLE " + newTable + " RENAME TO " + tableName);
+        });
+        tables.put(tableName, conf);
+        invalidateCachedRows(tableName, Collections.emptyMap());
+        log.info(ANSI_PURPLE + "Table '" + tableName + "' successfully rebuilt." + ANSI_RESET);
+    }
+
+    //##################################################################################################################
+    //################################################Schema############################################################
+    //##################################################################################################################
+
+    /**
+     *  Load Schema into Java and Database
+     *  Only Tables without "database" or with the Name of this Database are applied, see SchemaLoader for multiple Databases
+     * @param jsonPath
+     * @param jsonName
+     */
+    public void loadSchema(String jsonPath, String jsonName) {
+        Map<String, Map<String, Object>> tableDefs = readSchema(new File(jsonPath, jsonName), log);
+        if (tableDefs.isEmpty()) {
+            schema = tableDefs;
+            return;
+        }
+        Map<String, Map<String, Object>> ownTables = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : tableDefs.entrySet()) {
+            //Without "database" the Table belongs to this Instance, data.db is only SchemaLoader's Default
+            Object database = entry.getValue().get("database");
+            if (database == null || dbName.equals(database)) {
+                ownTables.put(entry.getKey(), entry.getValue());
+            }
+        }
+        applySchema(ownTables);
+    }
+
+    /**
+     * Reads a Schema File, creates it if missing
+     * @param jsonFilePath
+     * @param log
+     * @return Map<Key, Tabledefinition>, empty if the File is new or empty. Tables that aren't an Object or have
+     * a "database" that isn't a File Name are logged and skipped
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Map<String, Object>> readSchema(File jsonFilePath, Logger log) {
+        try {
+            if (!jsonFilePath.exists()) {
+                try {
+                    jsonFilePath.getParentFile().mkdirs();
+                    jsonFilePath.createNewFile();
+                    log.warning("Schema file created. Add a schema and reload");
+                    return new HashMap<>();
+                } catch (Exception e) {
+                    log.severe("Error creating schema: " + e.getMessage());
+                    throw new RuntimeException(e);
+                }
+            }
+
+            if (jsonFilePath.length() == 0) {
+                log.warning("Schema file is empty. Add a schema and reload");
+                return new HashMap<>();
+            }
+
+            Map<?, ?> raw = MAPPER.readValue(jsonFilePath, LinkedHashMap.class);
+            Map<String, Map<String, Object>> tableDefs = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : raw.entrySet()) {
+                String tableKey = String.valueOf(entry.getKey());
+                if (!(entry.getValue() instanceof Map<?, ?> definition)) {
+                    log.severe("Skipping table '" + tableKey + "', not an object: " + entry.getValue());
+                    continue;
+                }
+                Object database = definition.get("database");
+                if (database != null && (!(database instanceof String name) || name.isBlank())) {
+                    log.severe("Skipping table '" + tableKey + "', database must be a file name: " + database);
+                    continue;
+                }
+                Map<String, Object> checked = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> attribute : definition.entrySet()) {
+                    checked.put(String.valueOf(attribute.getKey()), attribute.getValue());
+                }
+                tableDefs.put(tableKey, checked);
+            }
+            log.info("Schema loaded");
+            return tableDefs;
+        } catch (IOException e) {
+            log.severe("Error loading schema: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates/Migrates the Tables of parsed Schema Definitions, one after another
+     * @param tableDefs
+     */
+    void applySchema(Map<String, Map<String, Object>> tableDefs) {
+        schema = tableDefs;
+        createSchema();
+    }
+
+    /**
+     * Time each Table took in the last loadSchema()
+     * @return Map<Tablename, Duration>
+     */
+    public Map<String, Duration> getSchemaTimings() {
+        return Collections.unmodifiableMap(schemaTimings);
+    }
+
+    /**
+     * File Name of this Database
+     * @return String
+     */
+    public String getDbName() {
+        return dbName;
+    }
+
+    private void createSchema(){
+        if(schema == null){
+            log.severe("Schema is Empty or isn't loaded correctly");
+            return;
+        }
+        Map<String, String> storedHashes = getSchemaHashes();
+        schemaTimings.clear();
+        for (Map.Entry<String, Map<String, Object>> entry : schema.entrySet()) {
+            long start = System.nanoTime();
+            //Load Table/Columns
+            String tableKey = entry.getKey();
+            Map<String, Object> tableDef = entry.getValue();
+            TableConfig conf = new TableConfig((String) tableDef.get("table"));
+
+            // Set columns
+            conf.addColumnList((List<Map<String, String>>) tableDef.get("columns"));
+
+            // Extract primary_keys and set them
+            List<String> primaryKeyList = (List<String>) tableDef.get("primary_keys");
+            if (primaryKeyList != null) {
+                String[] primaryKeys = primaryKeyList.toArray(new String[0]);
+                conf.setPrimary(primaryKeys);
+            }
+
+            // Set indexes
+            List<Map<String, Object>> indexList = indexList(tableKey, tableDef.get("indexes"));
+            if (indexList != null) {
+                conf.addIndexList(indexList);
+            }
+
+            applyTable(conf, storedHashes);
+            schemaTimings.put(conf.getTableName(), Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Creates a missing Table, migrates a changed one
+     * @param conf
+     * @param storedHashes Schema Hashes from getSchemaHashes()
+     */
+    private void applyTable(TableConfig conf, Map<String, String> storedHashes) {
+        //Unchanged since the last Start, no Introspection needed
+        if (schemaHash(conf).equals(storedHashes.get(conf.getTableName()))) {
+            tables.put(conf.getTableName(), conf);
+            log.info(ANSI_GREEN + "Table '" + conf.getTableName() + "' unchanged" + ANSI_RESET);
+            return;
+        }
+        try {
+            TableInfo existing = getTableInfo(conf.getTableName());
+            if (existing.columns.isEmpty()) {
+                createTable(conf);
+            } else {
+                migrateTable(conf, existing);
+            }
+        } catch (SQLException e) {
+            log.severe("Error reading Table '" + conf.getTableName() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checked "indexes" of a Tabledefinition, Entries that aren't Objects are skipped
+     * @param tableKey
+     * @param indexes
+     * @return List<Map<String, Object>>, null if not set
+     */
+    private List<Map<String, Object>> indexList(String tableKey, Object indexes) {
+        if (indexes == null) {
+            return null;
+        }
+        if (!(indexes instanceof List<?> entries)) {
+            log.severe("Indexes of '" + tableKey + "' must be a list");
+            return null;
+        }
+        List<Map<String, Object>> indexList = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            if (!(entry instanceof Map<?, ?> index)) {
+                log.severe("Skipping index of '" + tableKey + "', not an object: " + entry);
+                continue;
+            }
+            Map<String, Object> checked = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> attribute : index.entrySet()) {
+                checked.put(String.valueOf(attribute.getKey()), attribute.getValue());
+            }
+            indexList.add(checked);
+        }
+        return indexList;
+    }
+
+    /**
+     * Version of a Table, counts the Schema Changes applied by createTable/migrateTable/loadSchema
+     * @param tableName
+     * @return int, 0 if the Table is unknown
+     */
+    public int getSchemaVersion(String tableName) {
+        try {
+            return pool.read(conn -> withStatement(conn, "SELECT version FROM " + SCHEMA_TABLE + " WHERE table_name = ?", pstmt -> {
+                pstmt.setString(1, tableName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }));
+        } catch (SQLException e) {
+            log.severe("Error reading schema version of " + tableName + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    //##################################################################################################################
+    //################################################Transactions######################################################
+    //##################################################################################################################
+
+    /**
+     * Runs Work as one Unit with a single Commit
+     * Everything the Work does through the Transaction (or through this MineDb on the same Thread) uses the Writer
+     * Connection, other Threads wait for the Writer until the Transaction ends.
+     * Throwing from the Work rolls everything back. Called inside another Transaction it becomes a Savepoint,
+     * only the inner Work is rolled back and the outer Transaction continues
+     * @param work
+     * @return ReturnSet, NONE if committed, Error of the failed Statement or UNKNOWN if rolled back
+     */
+    public ReturnSet transaction(Consumer<Transaction> work) {
+        ReturnSet returnSet = new ReturnSet();
+        try {
+            runInTransaction(() -> work.accept(new Transaction(this)));
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        } catch (Transaction.TransactionException e) {
+            log.severe("Transaction rolled back: " + e.getMessage());
+            returnSet.setError(e.getReturnSet().getError(), e);
+        } catch (SQLException e) {
+            log.severe("Transaction rolled back: " + e.getMessage());
+            returnSet.setError(errorOf(e), e);
+        } catch (RuntimeException e) {
+            log.severe("Transaction rolled back: " + e);
+            returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN, e);
+        }
+        return returnSet;
+    }
+
+    /**
+     * Runs a Transaction on the Database Thread
+     * @param work
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> transactionAsync(Consumer<Transaction> work) {
+        return submit(dbExecutor, () -> transaction(work));
+    }
+
+    //##################################################################################################################
+    //################################################Entities##########################################################
+    //##################################################################################################################
+
+    /**
+     * Create or migrate the Table of an @Table Class like loadSchema() does:
+     * a missing Table is created, a changed Class is migrated (@Column.renamedFrom keeps the Data of renamed Fields)
+     * @param entityType
+     */
+    public void createTable(Class<?> entityType) {
+        applyTable(EntityCodec.of(entityType).getTableConfig(), getSchemaHashes());
+    }
+
+    /**
+     * Insert an Entity, or update all its Columns if a Row with the same @Id exists
+     * Entities without @Id are always inserted
+     * @param entity
+     * @return ReturnSet
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ReturnSet save(T entity) {
+        EntityCodec<T> codec = EntityCodec.of((Class<T>) entity.getClass());
+        InsertRow row = codec.toInsertRow(entity);
+        String[] idColumns = codec.getIdColumns();
+        if (idColumns.length == 0) {
+            return insert(codec.getTableName(), row);
+        }
+        return upsert(codec.getTableName(), row, idColumns);
+    }
+
+    /**
+     * Select an Entity by its @Id Values, served from the RowCache if enabled
+     * @param entityType
+     * @param id         Values in Declaration Order of the @Id Fields
+     * @return T, null if not found or on Error
+     */
+    public <T> T findById(Class<T> entityType, Object... id) {
+        EntityCodec<T> codec = EntityCodec.of(entityType);
+        ReturnSet returnSet = selectByKey(codec.getTableName(), codec.toKey(id));
+        if (returnSet.getError() != ReturnSet.ReturnErrors.NONE || returnSet.resultSize() == 0) {
+            return null;
+        }
+        return codec.read(returnSet, 0);
+    }
+
+    /**
+     * Select Entities
+     * @param entityType
+     * @param condition  where(gt("level", 10))
+     * @param sort       ["level desc"]
+     * @return List<T>, empty on Error
+     */
+    public <T> List<T> findAll(Class<T> entityType, Condition condition, String[] sort) {
+        EntityCodec<T> codec = EntityCodec.of(entityType);
+        ReturnSet returnSet = selectWhere(codec.getTableName(), codec.getColumns(), condition, sort);
+        if (returnSet.getError() != ReturnSet.ReturnErrors.NONE) {
+            return new ArrayList<>();
+        }
+        return codec.readAll(returnSet);
+    }
+
+    /**
+     * Delete an Entity by its @Id Values
+     * @param entity
+     * @return ReturnSet, NO_PRIMARY_KEY if the Class has no @Id
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ReturnSet deleteEntity(T entity) {
+        EntityCodec<T> codec = EntityCodec.of((Class<T>) entity.getClass());
+        String[] idColumns = codec.getIdColumns();
+        if (idColumns.length == 0) {
+            log.severe("Entity " + entity.getClass().getName() + " has no @Id");
+            ReturnSet returnSet = new ReturnSet();
+            returnSet.setError(ReturnSet.ReturnErrors.NO_PRIMARY_KEY);
+            return returnSet;
+        }
+        Object[] id = codec.getId(entity);
+        Condition condition = null;
+        for (int i = 0; i < idColumns.length; i++) {
+            Condition eq = Condition.eq(idColumns[i], id[i]);
+            condition = condition == null ? eq : condition.and(eq);
+        }
+        return deleteWhere(codec.getTableName(), condition);
+    }
+
+    //##################################################################################################################
+    //################################################Async#############################################################
+    //##################################################################################################################
+
+    /**
+     * Select Row/Rows on a Reader Thread
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> selectWhereAsync(String table, String[] columns, Condition condition, String[] sort) {
+        return submit(readExecutor, () -> selectWhere(table, columns, condition, sort));
+    }
+
+    /**
+     * Keyset Page on a Reader Thread
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @param pageSize
+     * @param pageToken null for the first Page
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> selectPageAsync(String table, String[] columns, Condition condition, String[] sort,
+                                                        int pageSize, String pageToken) {
+        return submit(readExecutor, () -> selectPage(table, columns, condition, sort, pageSize, pageToken));
+    }
+
+    /**
+     * Save an Entity on the Database Thread
+     * @param entity
+     * @return CompletableFuture<ReturnSet>
+     */
+    public <T> CompletableFuture<ReturnSet> saveAsync(T entity) {
+        return submit(dbExecutor, () -> save(entity));
+    }
+
+    /**
+     * Select an Entity by its @Id Values on a Reader Thread
+     * @param entityType
+     * @param id
+     * @return CompletableFuture<T>, completes with null if not found
+     */
+    public <T> CompletableFuture<T> findByIdAsync(Class<T> entityType, Object... id) {
+        EntityCodec<T> codec = EntityCodec.of(entityType);
+        return submit(readExecutor, () -> selectByKey(codec.getTableName(), codec.toKey(id)))
+                .thenApply(returnSet -> returnSet.getError() == ReturnSet.ReturnErrors.NONE && returnSet.resultSize() > 0
+                        ? codec.read(returnSet, 0) : null);
+    }
+
+    /**
+     * Insert one Row on the Database Thread
+     * @param table
+     * @param data
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> insertAsync(String table, InsertRow data) {
+        return submit(dbExecutor, () -> insert(table, data));
+    }
+
+    /**
+     * Insert multiple Rows on the Database Thread
+     * @param table
+     * @param rows
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> insertAsync(String table, InsertMultiRows rows) {
+        return submit(dbExecutor, () -> insert(table, rows));
+    }
+
+    /**
+     * Upsert one Row on the Database Thread
+     * @param table
+     * @param data
+     * @param conflictColumns
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> upsertAsync(String table, InsertRow data, String... conflictColumns) {
+        return submit(dbExecutor, () -> upsert(table, data, conflictColumns));
+    }
+
+    /**
+     * Upsert multiple Rows on the Database Thread
+     * @param table
+     * @param rows
+     * @param conflictColumns
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> upsertAsync(String table, InsertMultiRows rows, String... conflictColumns) {
+        return submit(dbExecutor, () -> upsert(table, rows, conflictColumns));
+    }
+
+    /**
+     * Update Rows on the Database Thread
+     * @param table
+     * @param data
+     * @param condition
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> updateWhereAsync(String table, UpdateRow data, Condition condition) {
+        return submit(dbExecutor, () -> updateWhere(table, data, condition));
+    }
+
+    /**
+     * Delete Rows on the Database Thread
+     * @param table
+     * @param condition
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> deleteWhereAsync(String table, Condition condition) {
+        return submit(dbExecutor, () -> deleteWhere(table, condition));
+    }
+
+    /**
+     * Runs the Query on the Executor and completes the Future on the Callback Executor
+     * @param executor Database Thread for Writes, Reader Threads for Reads
+     * @param query
+     * @return CompletableFuture<ReturnSet>
+     */
+    private CompletableFuture<ReturnSet> submit(Executor executor, Supplier<ReturnSet> query) {
+        CompletableFuture<ReturnSet> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                ReturnSet returnSet;
+                try {
+                    returnSet = query.get();
+                } catch (RuntimeException e) {
+                    log.severe("Error executing async query: " + e.getMessage());
+                    returnSet = new ReturnSet();
+                    returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN, e);
+                }
+                ReturnSet result = returnSet;
+                callbackExecutor.execute(() -> future.complete(result));
+            });
+        } catch (RejectedExecutionException e) {
+            log.severe("Database is closed, async query rejected");
+            ReturnSet returnSet = new ReturnSet();
+            returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN, e);
+            future.complete(returnSet);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a Task on the Database Thread
+     * @param task
+     */
+    void executeAsync(Runnable task) {
+        try {
+            dbExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warning("Database is closed, task rejected");
+        }
+    }
+
+    //##################################################################################################################
+    //###########################################Utils##################################################################
+    //##################################################################################################################
+
+    /**
+     * Runs an Action with a cached PreparedStatement of a Connection
+     * Parameters of the previous Use are cleared, the Statement stays open for the next Use unless the Action failed
+     * @param conn Connection borrowed from the Pool
+     * @param sql
+     * @param action
+     * @return Result of the Action
+     * @throws SQLException
+     */
+    private <T> T withStatement(StatementCache conn, String sql, StatementAction<T> action) throws SQLException {
+        PreparedStatement pstmt = conn.prepare(sql);
+        try {
+            pstmt.clearParameters();
+            return action.apply(pstmt);
+        } catch (SQLException e) {
+            conn.invalidate(sql);
+            throw e;
+        } finally {
+            conn.release(pstmt);
+        }
+    }
+
+    /**
+     * Executes DDL on the Writer Connection
+     * @param sql
+     * @throws SQLException
+     */
+    private void executeDdl(String sql) throws SQLException {
+        pool.write(conn -> {
+            try (Statement stmt = conn.getConnection().createStatement()) {
+                stmt.execute(sql);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * TIMEOUT if no Connection was available, UNKNOWN otherwise
+     * @param e
+     * @return ReturnErrors
+     */
+    private ReturnSet.ReturnErrors errorOf(SQLException e) {
+        return e instanceof SQLTimeoutException ? ReturnSet.ReturnErrors.TIMEOUT : ReturnSet.ReturnErrors.UNKNOWN;
+    }
+
+    @FunctionalInterface
+    private interface StatementAction<T> {
+        T apply(PreparedStatement pstmt) throws SQLException;
+    }
+
+    /**
+     * Executes a parameterized Statement
+     * @param sql
+     * @param params
+     * @return changed Rows
+     * @throws SQLException
+     */
+    int executeUpdate(String sql, Object[] params) throws SQLException {
+        return pool.write(conn -> withStatement(conn, sql, pstmt -> {
+            for (int i = 0; i < params.length; i++) {
+                bindValue(pstmt, i + 1, params[i]);
+            }
+            return pstmt.executeUpdate();
+        }));
+    }
+
+    /**
+     * Runs Work in one Transaction, rolls back on Exception
+     * Inside a running Transaction the Work runs in a Savepoint instead
+     * @param work
+     * @throws SQLException
+     */
+    void runInTransaction(SqlRunnable work) throws SQLException {
+        pool.write(conn -> {
+            Connection connection = conn.getConnection();
+            if (!connection.getAutoCommit()) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    work.run();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback(savepoint);
+                    throw e;
+                } finally {
+                    connection.releaseSavepoint(savepoint);
+                }
+                return null;
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                long start = metricsStart();
+                connection.commit();
+                record(QueryMetrics.Operation.COMMIT, "*", start, 0, false);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+                //Readers may have cached the old Rows while the Transaction was open
+                for (String table : transactionTables) {
+                    RowCache cache = rowCaches.get(table);
+                    if (cache != null) {
+                        cache.clear();
+                    }
+                }
+                transactionTables.clear();
+            }
+            return null;
+        });
+    }
+
+    @FunctionalInterface
+    interface SqlRunnable {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Primary Keys of a Table, from the TableConfig or the live Database
+     * @param tableName
+     * @return String[], empty if the Table has no Primary Key
+     */
+    String[] getPrimaryKeys(String tableName) {
+        TableConfig conf = tables.get(tableName);
+        if (conf != null && conf.getPrimaryKeys() != null) {
+            return conf.getPrimaryKeys();
+        }
+        try {
+            return getTableInfo(tableName).primaryKeys.toArray(new String[0]);
+        } catch (SQLException e) {
+            log.severe("Error reading primary keys of " + tableName + ": " + e.getMessage());
+            return new String[0];
+        }
+    }
+
+    /**
+     * Removes changed Rows from the RowCache of a Table
+     * The Row is invalidated if all Primary Key Values are known, otherwise the whole Cache
+     * @param table
+     * @param knownValues Column Values of the changed Row(s)
+     */
+    void invalidateCachedRows(String table, Map<String, ?> knownValues) {
+        invalidateCachedRows(table, knownValues, new String[0]);
+    }
+
+    /**
+     * Removes changed Rows from the RowCache of a Table
+     * Changing a Primary Key Column invalidates the whole Cache
+     * @param table
+     * @param knownValues    Column Values of the changed Row(s)
+     * @param changedColumns
+     */
+    private void invalidateCachedRows(String table, Map<String, ?> knownValues, String[] changedColumns) {
+        RowCache cache = rowCaches.get(table);
+        if (cache == null) {
+            return;
+        }
+        if (pool.holdsWriter() && inTransaction()) {
+            transactionTables.add(table);
+        }
+        String[] primaryKeys = getPrimaryKeys(table);
+        if (!Collections.disjoint(Arrays.asList(changedColumns), Arrays.asList(primaryKeys))) {
+            cache.clear();
+            return;
+        }
+        List<Object> key = new ArrayList<>(primaryKeys.length);
+        for (String pk : primaryKeys) {
+            if (!knownValues.containsKey(pk)) {
+                cache.clear();
+                return;
+            }
+            key.add(knownValues.get(pk));
+        }
+        if (key.isEmpty()) {
+            cache.clear();
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    private long metricsStart() {
+        return metrics != null || slowQueryNanos > 0 ? System.nanoTime() : 0L;
+    }
+
+    private void record(QueryMetrics.Operation operation, String table, long start, long rows, ReturnSet returnSet) {
+        record(operation, table, start, rows, returnSet, null, null);
+    }
+
+    private void record(QueryMetrics.Operation operation, String table, long start, long rows, ReturnSet returnSet,
+                        String sql, Object[] params) {
+        record(operation, table, start, rows, returnSet.getError() != ReturnSet.ReturnErrors.NONE
+                && returnSet.getError() != ReturnSet.ReturnErrors.PARTLY_INSERT, sql, params);
+    }
+
+    private void record(QueryMetrics.Operation operation, String table, long start, long rows, boolean failed) {
+        record(operation, table, start, rows, failed, null, null);
+    }
+
+    private void record(QueryMetrics.Operation operation, String table, long start, long rows, boolean failed,
+                        String sql, Object[] params) {
+        if (start == 0L) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        QueryMetrics current = metrics;
+        if (current != null) {
+            current.record(operation, table, nanos, rows, failed);
+        }
+        if (slowQueryNanos > 0 && nanos >= slowQueryNanos) {
+            logSlowQuery(operation, table, nanos, sql, params);
+        }
+    }
+
+    /**
+     * Parameters of a Query in Placeholder Order, for the Slow Query Log
+     * @param columns   Columns bound before the Condition, null if none
+     * @param getter
+     * @param condition
+     * @return Object[]
+     */
+    private Object[] queryParams(String[] columns, Function<String, Object> getter, Condition condition) {
+        if (slowQueryNanos <= 0) {
+            return null;
+        }
+        List<Object> params = new ArrayList<>();
+        if (columns != null) {
+            for (String col : columns) {
+                params.add(getter.apply(col));
+            }
+        }
+        if (condition != null) {
+            params.addAll(Arrays.asList(condition.getParams()));
+        }
+        return params.toArray();
+    }
+
+    /**
+     * Logs a slow Query with Caller and Query Plan, full Table Scans are marked
+     * @param operation
+     * @param table
+     * @param nanos
+     * @param sql       null for Operations without a single Statement
+     * @param params
+     */
+    private void logSlowQuery(QueryMetrics.Operation operation, String table, long nanos, String sql, Object[] params) {
+        StringBuilder message = new StringBuilder("Slow query on ").append(dbName).append(" (")
+                .append(String.format("%.2f", nanos / 1e6)).append("ms): ").append(operation).append(" ").append(table);
+        if (sql != null) {
+            message.append("\n  SQL: ").append(sql);
+            message.append("\n  Params: ").append(params != null ? Arrays.toString(params) : "[]");
+        }
+        message.append("\n  Caller: ").append(callerFrame());
+
+        if (sql != null && operation != QueryMetrics.Operation.INSERT) {
+            try {
+                List<String> plan = explainQueryPlan(sql, params);
+                for (String step : plan) {
+                    message.append("\n  Plan: ").append(step).append(scanNote(step));
+                }
+            } catch (SQLException e) {
+                message.append("\n  Plan: unavailable (").append(e.getMessage()).append(")");
+            }
+        }
+        log.warning(message.toString());
+    }
+
+    /**
+     * Marks Plan Steps that read every Row of a Table or Index, an Index Scan avoids a Sort but not the Reads
+     * @param step SCAN t, SCAN t USING INDEX i, SCAN t USING COVERING INDEX i, SEARCH t USING INDEX i (x=?), ...
+     * @return String, empty if the Step isn't a Scan
+     */
+    static String scanNote(String step) {
+        if (!step.startsWith("SCAN ") || step.startsWith("SCAN CONSTANT ROW")) {
+            return "";
+        }
+        if (step.contains("USING COVERING INDEX")) {
+            return "  <-- full scan of covering index";
+        }
+        if (step.contains("USING INDEX") || step.contains("USING INTEGER PRIMARY KEY")) {
+            return "  <-- full scan in index order";
+        }
+        return "  <-- full table scan";
     }
 
     /**
-     * Creates DB Instance with default Database data.db
-     * @param log
-     * @param pluginPath
-     * @throws Exception
+     * EXPLAIN QUERY PLAN of a Statement
+     * @param sql
+     * @param params
+     * @return List<String> Details of the Plan Steps
+     * @throws SQLException
      */
-    public MineDb(Logger log, File pluginPath) throws Exception {
-        this.log = log;
-        this.pluginPath = pluginPath;
-        initDb(log, pluginPath, "data.db");
+    private List<String> explainQueryPlan(String sql, Object[] params) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        pool.read(conn -> {
+            try (PreparedStatement pstmt = conn.getConnection().prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                if (params != null) {
+                    for (int i = 0; i < params.length; i++) {
+                        bindValue(pstmt, i + 1, params[i]);
+                    }
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        plan.add(rs.getString("detail"));
+                    }
+                }
+            }
+            return null;
+        });
+        return plan;
     }
 
-    private void initDb(Logger log, File pluginPath, String dbName) throws  Exception{
-        //Check Folder
-        if (!pluginPath.exists()) {
-            pluginPath.mkdirs();
+    /**
+     * First Stack Frame outside of Minebase and the JDK, the Thread Name for async Queries
+     * @return String
+     */
+    private static String callerFrame() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith("de.xlb.minebase.api.")
+                        && !frame.getClassName().startsWith("java."))
+                .findFirst()
+                .map(StackWalker.StackFrame::toString)
+                .orElse("thread " + Thread.currentThread().getName()));
+    }
+
+    /**
+     * Is a Transaction open on the Writer Connection, only meaningful for the Thread holding the Writer
+     * @return boolean
+     */
+    private boolean inTransaction() {
+        try {
+            return !pool.getWriter().getConnection().getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly(ResultSet rs, Statement stmt) {
+        try {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+        } catch (SQLException e) {
+            log.warning("Error closing statement: " + e.getMessage());
         }
+    }
 
-        //Create Connection
-        File dbFile = new File(pluginPath, "data.db");
-        this.connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
-        log.info("Database connected");
+    private Map<String, Object> rowValues(String[] columns, Function<String, Object> getter) {
+        Map<String, Object> values = new HashMap<>();
+        for (String col : columns) {
+            values.put(col, getter.apply(col));
+        }
+        return values;
     }
 
     /**
-     * Call on Shutdown to impede Locks
+     * Appends " WHERE condition" if a Condition is given
+     * @param sql
+     * @param condition
+     */
+    private void appendWhere(StringBuilder sql, Condition condition) {
+        if (condition != null) {
+            sql.append(" WHERE ").append(condition.getSql());
+        }
+    }
+
+    /**
+     * Binds the Parameters of a Condition starting at Index
+     * @param pstmt
+     * @param startIndex
+     * @param condition
+     * @return next free Parameter Index
      * @throws SQLException
      */
-    public void close() throws SQLException {
-        connection.close();
+    private int bindParams(PreparedStatement pstmt, int startIndex, Condition condition) throws SQLException {
+        int paramIndex = startIndex;
+        if (condition != null) {
+            for (Object param : condition.getParams()) {
+                bindValue(pstmt, paramIndex++, param);
+            }
+        }
+        return paramIndex;
     }
-    //##################################################################################################################
-    //################################################CRUD##############################################################
-    //##################################################################################################################
 
     /**
-     *  Select Row/Rows
-     * @param table     users
-     * @param columns   ["id", "name", "age"]
-     * @param condition ["age > 18", "name is not null"]
-     * @param sort      ["name desc", "age asc"]
-     * @return ResultSet
+     * Binds a Value with the matching JDBC Setter
+     * @param pstmt
+     * @param index
+     * @param value
+     * @throws SQLException
      */
-    public ReturnSet select(String table, String[] columns, String[] condition, String[] sort) {
-        ReturnSet returnSet = new ReturnSet();
+    private void bindValue(PreparedStatement pstmt, int index, Object value) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, Types.NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            pstmt.setLong(index, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            pstmt.setDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            pstmt.setInt(index, (Boolean) value ? 1 : 0);
+        } else if (value instanceof byte[]) {
+            pstmt.setBytes(index, (byte[]) value);
+        } else {
+            pstmt.setString(index, value.toString());
+        }
+    }
+
+    /**
+     * Builds SELECT columns FROM table WHERE condition ORDER BY sort
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @param limited   appends LIMIT ? OFFSET ?
+     * @return String
+     */
+    private String buildSelectSql(String table, String[] columns, Condition condition, String[] sort, boolean limited) {
         StringBuilder sql = new StringBuilder("SELECT ");
 
         // Add columns
@@ -109,15 +2099,7 @@ public class MineDb {
         sql.append(" FROM ").append(table);
 
         // Add WHERE conditions
-        if (condition != null && condition.length > 0) {
-            sql.append(" WHERE ");
-            for (int i = 0; i < condition.length; i++) {
-                sql.append(condition[i]);
-                if (i < condition.length - 1) {
-                    sql.append(" AND ");
-                }
-            }
-        }
+        appendWhere(sql, condition);
 
         // Add ORDER BY
         if (sort != null && sort.length > 0) {
@@ -130,47 +2112,103 @@ public class MineDb {
             }
         }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql.toString())) {
+        if (limited) {
+            sql.append(" LIMIT ? OFFSET ?");
+        }
 
-            var meta = rs.getMetaData();
-            int columnCount = meta.getColumnCount();
+        return sql.toString();
+    }
 
-            while (rs.next()) {
-                Map<String, String> row = new HashMap<>();
-                for (int i = 1; i <= columnCount; i++) {
-                    String columnName = meta.getColumnName(i);
-                    String value = rs.getString(i);
-                    row.put(columnName, value);
-                }
-                returnSet.addRow(row);
+    /**
+     * Rows after the given Sort Key Values: (k1 > ?) OR (k1 = ? AND k2 > ?) OR ...
+     * Uses a Row Value Comparison (k1, k2) > (?, ?) if all Keys have the same Direction
+     * @param keys
+     * @param descending
+     * @param after      Sort Key Values of the last Row
+     * @return Condition
+     */
+    private Condition keysetCondition(List<String> keys, List<Boolean> descending, Object[] after) {
+        if (!descending.contains(!descending.get(0))) {
+            String operator = descending.get(0) ? " < " : " > ";
+            StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+            for (int i = 0; i < keys.size(); i++) {
+                placeholders.add("?");
             }
+            return new Condition("(" + String.join(", ", keys) + ")" + operator + placeholders, after);
+        }
 
-            returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        Condition result = null;
+        for (int i = 0; i < keys.size(); i++) {
+            Condition step = new Condition(keys.get(i) + (descending.get(i) ? " < ?" : " > ?"), after[i]);
+            for (int j = i - 1; j >= 0; j--) {
+                step = new Condition(keys.get(j) + " = ?", after[j]).and(step);
+            }
+            result = result == null ? step : result.or(step);
+        }
+        return result;
+    }
 
-        } catch (SQLException e) {
-            log.severe("Error executing SELECT query: " + e.getMessage());
-            returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN, e);
+    /**
+     * Page Token: Base64 of the JSON {"sort": [...], "after": [...]}, BLOB Values as {"blob": Base64}
+     * @param sort  normalized Sort, a Token is only valid for the same Sort
+     * @param after Sort Key Values of the last Row
+     * @return String
+     */
+    private String encodePageToken(String[] sort, Object[] after) {
+        //JSON has no Bytes, BLOBs are tagged so they are bound as BLOB again and not as Base64 Text
+        Object[] values = new Object[after.length];
+        for (int i = 0; i < after.length; i++) {
+            values[i] = after[i] instanceof byte[] bytes
+                    ? Map.of(TOKEN_BLOB, Base64.getEncoder().encodeToString(bytes)) : after[i];
+        }
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("sort", sort);
+        token.put("after", values);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(token));
+        } catch (IOException e) {
+            log.severe("Error encoding page token: " + e.getMessage());
+            return null;
         }
-        return returnSet;
     }
 
     /**
-     * Insert one Row
-     * @param table users
-     * @param data  [id=1, name=Smith, age=30, ...]
-     * @return ResultSet
+     * Sort Key Values of a Page Token
+     * @param token
+     * @param sort  normalized Sort of the current Query
+     * @return Object[], null if the Token is broken or was created for another Sort
      */
-    public ReturnSet insert(String table, InsertRow data) {
-        ReturnSet returnSet = new ReturnSet();
-        if (data == null || data.isEmpty()) {
-            log.severe("No data provided for insert operation");
-            returnSet.setError(ReturnSet.ReturnErrors.NO_DATA);
-            return returnSet;
+    @SuppressWarnings("unchecked")
+    private Object[] decodePageToken(String token, String[] sort) {
+        try {
+            Map<String, Object> decoded = MAPPER.readValue(Base64.getUrlDecoder().decode(token), LinkedHashMap.class);
+            List<Object> tokenSort = (List<Object>) decoded.get("sort");
+            List<Object> after = (List<Object>) decoded.get("after");
+            if (tokenSort == null || after == null || !tokenSort.equals(Arrays.asList(sort)) || after.size() != sort.length) {
+                return null;
+            }
+            Object[] values = after.toArray();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] instanceof Map<?, ?> tagged) {
+                    if (!(tagged.get(TOKEN_BLOB) instanceof String encoded)) {
+                        return null;
+                    }
+                    values[i] = Base64.getDecoder().decode(encoded);
+                }
+            }
+            return values;
+        } catch (IOException | IllegalArgumentException | ClassCastException e) {
+            return null;
         }
+    }
 
-        String[] columns = data.getColumns();
-        String[] values = data.getValues();
+    /**
+     * Builds INSERT INTO table (columns) VALUES (?, ...)
+     * @param table
+     * @param columns
+     * @return String
+     */
+    private String buildInsertSql(String table, String[] columns) {
         StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
 
         //Columns
@@ -182,391 +2220,523 @@ public class MineDb {
         sql.append(columnJoin).append(") VALUES (");
 
         //Placeholder
-        for (int i = 0; i < data.size(); i++) {
+        for (int i = 0; i < columns.length; i++) {
             sql.append("?");
-            if(i < data.size() - 1){
+            if(i < columns.length - 1){
                 sql.append(", ");
             }
         }
 
-        sql.append(")");
+        return sql.append(")").toString();
+    }
 
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
-            int paramIndex = 1;
+    /**
+     * INSERT ... ON CONFLICT (Conflict Columns) DO UPDATE SET Column = excluded.Column
+     * DO NOTHING if the Row only has Conflict Columns
+     * @param table
+     * @param columns
+     * @param conflictColumns
+     * @return String
+     */
+    private String buildUpsertSql(String table, String[] columns, String[] conflictColumns) {
+        StringBuilder sql = new StringBuilder(buildInsertSql(table, columns));
+        sql.append(" ON CONFLICT (").append(String.join(", ", conflictColumns)).append(")");
 
-            //Set Value
-            for (String val : values) {
-                pstmt.setString(paramIndex++, val);
+        List<String> conflict = Arrays.asList(conflictColumns);
+        StringJoiner assignments = new StringJoiner(", ");
+        for (String col : columns) {
+            if (!conflict.contains(col)) {
+                assignments.add(col + " = excluded." + col);
             }
-
-            returnSet.setChangedRows(pstmt.executeUpdate());
-            returnSet.setError(ReturnSet.ReturnErrors.NONE);
-        } catch (SQLException e) {
-            log.severe("Error executing INSERT query: " + e.getMessage());
-            returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN, e);
         }
-        return returnSet;
+        if (assignments.length() == 0) {
+            return sql.append(" DO NOTHING").toString();
+        }
+        return sql.append(" DO UPDATE SET ").append(assignments).toString();
     }
 
     /**
-     *  Update Rows under the defined Condition
-     * @param table     users
-     * @param data      [name=Smith, age=31, ...]
-     * @param condition ["age<50", "id=1"]
-     * @return ResultSet
+     * Given Conflict Columns or the Primary Keys of the Table
+     * @param table
+     * @param conflictColumns
+     * @return String[], empty if the Table has no Primary Key
      */
-    public ReturnSet update(String table, UpdateRow data, String[] condition) {
-        ReturnSet returnSet = new ReturnSet();
-        if (data == null || data.isEmpty()) {
-            log.severe("No data provided for update operation");
-            returnSet.setError(ReturnSet.ReturnErrors.NO_DATA);
-            return returnSet;
-        }
-
-        String[] columns = data.getColumns();
-        String[] values = data.getValues();
-        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
-
-
-        //Columns
-        StringJoiner columnJoin = new StringJoiner(", ");
-        for (String col : columns) {
-            columnJoin.add(col+ " = ?");
+    private String[] conflictColumns(String table, String[] conflictColumns) {
+        if (conflictColumns != null && conflictColumns.length > 0) {
+            return conflictColumns;
         }
-        sql.append(columnJoin);
+        return getPrimaryKeys(table);
+    }
 
-        // Add WHERE conditions
-        if (condition != null && condition.length > 0) {
-            sql.append(" WHERE ");
-            for (int i = 0; i < condition.length; i++) {
-                sql.append(condition[i]);
-                if (i < condition.length - 1) {
-                    sql.append(" AND ");
-                }
+    /**
+     * Inserts one Chunk as Batch. If the Batch fails, the Chunk is rolled back to a Savepoint and
+     * retried Row by Row to find the failing Rows
+     * @param connection
+     * @param pstmt
+     * @param rows
+     * @param chunk     Row Indexes
+     * @param columns
+     * @param returnSet Collects failed Rows
+     * @return inserted Rows
+     * @throws SQLException
+     */
+    private int insertChunk(Connection connection, PreparedStatement pstmt, InsertMultiRows rows, List<Integer> chunk,
+                            String[] columns, ReturnSet returnSet) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            for (int index : chunk) {
+                bindInsertRow(pstmt, rows.get(index), columns);
+                pstmt.addBatch();
             }
+            pstmt.executeBatch();
+            return chunk.size();
+        } catch (SQLException e) {
+            pstmt.clearBatch();
+            connection.rollback(savepoint);
+        } finally {
+            connection.releaseSavepoint(savepoint);
         }
 
-        try {
-            PreparedStatement pstmt = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
-            int paramIndex = 1;
-
-            //Set Value
-            for (String val : values) {
-                pstmt.setString(paramIndex++, val);
+        int insertedCount = 0;
+        for (int index : chunk) {
+            try {
+                bindInsertRow(pstmt, rows.get(index), columns);
+                insertedCount += pstmt.executeUpdate();
+            } catch (SQLException e) {
+                returnSet.addFailedRow(index, e);
             }
+        }
+        return insertedCount;
+    }
 
-            returnSet.setChangedRows(pstmt.executeUpdate());
-            returnSet.setError(ReturnSet.ReturnErrors.NONE);
-        } catch (SQLException e) {
-            log.severe("Error executing UPDATE query: " + e.getMessage());
-            returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN, e);
+    private void bindInsertRow(PreparedStatement pstmt, InsertRow row, String[] columns) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            bindValue(pstmt, i + 1, row.getValue(columns[i]));
         }
-        return returnSet;
     }
 
     /**
-     * Delete Rows under the defined Condition
-     * @param table     users
-     * @param condition ["age > 150", "name != null"]
-     * @return ResultSet
+     * Get Columns, Primary Keys and the CREATE Statement of a Table(live Database)
+     * @param tableName
+     * @return TableInfo, no Columns if the Table doesn't exist
+     * @throws SQLException
      */
-    public ReturnSet delete(String table, String[] condition) {
-        ReturnSet returnSet = new ReturnSet();
-        StringBuilder sql = new StringBuilder("DELETE FROM ")
-                .append(table);
-
-        // Add WHERE conditions
-        if (condition != null && condition.length > 0) {
-            sql.append(" WHERE ");
-            for (int i = 0; i < condition.length; i++) {
-                sql.append(condition[i]);
-                if (i < condition.length - 1) {
-                    sql.append(" AND ");
+    private TableInfo getTableInfo(String tableName) throws SQLException {
+        TableInfo info = new TableInfo();
+        Map<Integer, String> primaryKeys = new TreeMap<>();
+        pool.write(conn -> {
+            try (Statement stmt = conn.getConnection().createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + tableName + ")")) {
+                while (rs.next()) {
+                    info.columns.put(rs.getString("name"),
+                            columnDefinition(rs.getString("type"), rs.getInt("notnull") != 0, rs.getString("dflt_value")));
+                    if (rs.getInt("pk") > 0) {
+                        primaryKeys.put(rs.getInt("pk"), rs.getString("name"));
+                    }
                 }
             }
-        } else {
-            log.warning("Executing DELETE without WHERE condition on table: " + table);
-        }
-
-        try {
-            Statement stmt = connection.createStatement();
-            returnSet.setChangedRows(stmt.executeUpdate(sql.toString()));
-            returnSet.setError(ReturnSet.ReturnErrors.NONE);
-        } catch (SQLException e) {
-            log.severe("Error executing DELETE query: " + e.getMessage());
-            returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN, e);
-        }
-        return returnSet;
+            try (PreparedStatement pstmt = conn.getConnection().prepareStatement(
+                    "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+                pstmt.setString(1, tableName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    info.sql = rs.next() && rs.getString(1) != null ? normalizeIndexSql(rs.getString(1)) : "";
+                }
+            }
+            return null;
+        });
+        info.primaryKeys.addAll(primaryKeys.values());
+        return info;
     }
 
-    //##################################################################################################################
-    //################################################DDL###############################################################
-    //##################################################################################################################
+    /**
+     * Columns (Name -> columnDefinition), Primary Keys and the normalized CREATE Statement of a live Table
+     */
+    private static class TableInfo {
+        private final Map<String, String> columns = new LinkedHashMap<>();
+        private final Set<String> primaryKeys = new LinkedHashSet<>();
+        private String sql = "";
+    }
 
     /**
-     * Doesn't create Table when Table exists, even if Tableschema is different
+     * SHA-256 over Columns, Primary Keys and Indexes of a TableConfig
      * @param conf
+     * @return String, hex
      */
-    public void createTable(TableConfig conf){
-
-        String tableName = conf.getTableName();
-
-        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS " + tableName + " (");
-
-        List<Map<String, String>> columns = conf.getTableColumns();
-        String[] primaryKeys = conf.getPrimaryKeys();
-
-        for (int i = 0; i < columns.size(); i++) {
-            Map<String, String> col = columns.get(i);
-            sql.append(col.get("name")).append(" ").append(col.get("type"));
-            if (i < columns.size() - 1) {
-                sql.append(", ");
-            }
-        }
-
-        // Primary Key Definition
-        if (primaryKeys != null && primaryKeys.length > 0) {
-            sql.append(", PRIMARY KEY (");
-            sql.append(String.join(", ", primaryKeys));
-            sql.append(")");
+    private String schemaHash(TableConfig conf) {
+        StringBuilder definition = new StringBuilder(conf.getTableName());
+        for (Map<String, String> col : conf.getTableColumns()) {
+            definition.append('|').append(col.get("name")).append(' ').append(col.get("type").toUpperCase());
         }
-
-        sql.append(");");
-
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql.toString());
-            log.info(ANSI_GREEN + "Created/Checked Table: "+tableName + ANSI_RESET);
-        }catch (SQLException e){
-            log.severe("Error creating Table: " + e.getMessage());
+        definition.append("|PK ").append(String.join(",", Optional.ofNullable(conf.getPrimaryKeys()).orElse(new String[0])));
+        for (Map<String, Object> index : Optional.ofNullable(conf.getIndexes()).orElse(Collections.emptyList())) {
+            definition.append("|IDX ").append(indexName(conf.getTableName(), index)).append(' ').append(indexDefinition(index));
         }
-    }
-
-    public void deleteTable(String tableName) {
-        String sql = "DROP TABLE IF EXISTS " + tableName + ";";
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            log.info(ANSI_RED + "Deleted Table: " + tableName + ANSI_RESET);
-        } catch (SQLException e) {
-            log.severe("Error deleting Table: " + e.getMessage());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(definition.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
     /**
-     * Migrates an existing table to match the given schema.
-     * If differences are detected (columns or primary keys), the table is rebuilt and data migrated.
-     *
-     * @param conf Configuration for the table schema.
+     * Stored Schema Hashes of all Tables, one Query
+     * @return Map<Tablename, Hash>
      */
-    public void migrateTable(TableConfig conf) {
-        String tableName = conf.getTableName();
-        List<Map<String, String>> newColumns = conf.getTableColumns();
-        Set<String> newPrimaryKeys = new HashSet<>(Arrays.asList(Optional.ofNullable(conf.getPrimaryKeys()).orElse(new String[0])));
-
+    private Map<String, String> getSchemaHashes() {
+        Map<String, String> hashes = new HashMap<>();
         try {
-            log.info(ANSI_PURPLE + "Start Migration" + ANSI_RESET);
-            Map<String, String> existingColumns = getExistingColumns(tableName);
-            Set<String> existingPrimaryKeys = getExistingPrimaryKeys(tableName);
-
-            if (schemasMatch(existingColumns, existingPrimaryKeys, newColumns, newPrimaryKeys)) {
-                log.info(ANSI_PURPLE + "Table '" + tableName + "' has no schema changes. Skipping migration." + ANSI_RESET);
-                return;
-            }
-
-            List<String> commonColumns = newColumns.stream()
-                    .map(col -> col.get("name"))
-                    .filter(existingColumns::containsKey)
-                    .toList();
-
-            String backupTable = "tmp_backup_" + tableName + "_" + System.currentTimeMillis();
-
-            if (!commonColumns.isEmpty()) {
-                createBackupTable(tableName, backupTable, commonColumns);
-            }
-
-            deleteTable(tableName);
-            createTable(conf);
-
-            if (!commonColumns.isEmpty()) {
-                restoreDataFromBackup(tableName, backupTable, commonColumns);
-            }
-
-            log.info(ANSI_PURPLE + "Table '" + tableName + "' successfully migrated." + ANSI_RESET);
+            pool.read(conn -> withStatement(conn, "SELECT table_name, hash FROM " + SCHEMA_TABLE, pstmt -> {
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        hashes.put(rs.getString(1), rs.getString(2));
+                    }
+                }
+                return null;
+            }));
+        } catch (SQLException e) {
+            log.warning("Error reading schema hashes: " + e.getMessage());
+        }
+        return hashes;
+    }
 
+    /**
+     * Records the applied Schema of a Table, the Version grows when the Hash changes
+     * @param conf
+     */
+    private void storeSchemaHash(TableConfig conf) {
+        String sql = "INSERT INTO " + SCHEMA_TABLE + " (table_name, version, hash, updated_at) VALUES (?, 1, ?, ?)"
+                + " ON CONFLICT (table_name) DO UPDATE SET version = version + 1, hash = excluded.hash, updated_at = excluded.updated_at"
+                + " WHERE hash != excluded.hash";
+        try {
+            executeUpdate(sql, new Object[]{conf.getTableName(), schemaHash(conf), System.currentTimeMillis()});
         } catch (SQLException e) {
-            log.severe("Migration failed for table '" + tableName + "': " + e.getMessage());
+            log.warning("Error storing schema hash of " + conf.getTableName() + ": " + e.getMessage());
         }
     }
 
-    //##################################################################################################################
-    //################################################Schema############################################################
-    //##################################################################################################################
+    /**
+     * Get the Indexes created by CREATE INDEX on a Table(live Database)
+     * @param tableName
+     * @return Map<Indexname, Definition> comparable to indexSignature()
+     * @throws SQLException
+     */
+    private Map<String, String> getExistingIndexes(String tableName) throws SQLException {
+        //Indexes of Primary Keys and UNIQUE Columns have no SQL
+        String sql = "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL";
+        return pool.write(conn -> withStatement(conn, sql, pstmt -> {
+            pstmt.setString(1, tableName);
+            Map<String, String> indexes = new LinkedHashMap<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    indexes.put(rs.getString(1), normalizeIndexSql(rs.getString(2)));
+                }
+            }
+            return indexes;
+        }));
+    }
 
     /**
-     *  Load Schema into Java and Database
-     * @param jsonPath
-     * @param jsonName
+     * Get the Indexes reconcileIndexes() created on a Table
+     * @param tableName
+     * @return Set<Indexname>
+     * @throws SQLException
      */
-    public void loadSchema(String jsonPath, String jsonName) {
-        try {
-            File jsonFilePath = new File(jsonPath, jsonName);
-            if (!jsonFilePath.exists()) {
-                try {
-                    jsonFilePath.getParentFile().mkdirs();
-                    jsonFilePath.createNewFile();
-                    schema = new HashMap<>();
-                    log.warning("Schema file created. Add a schema and reload");
-                    return;
-                } catch (Exception e) {
-                    log.severe("Error creating schema: " + e.getMessage());
-                    throw new RuntimeException(e);
+    private Set<String> getOwnedIndexes(String tableName) throws SQLException {
+        String sql = "SELECT index_name FROM " + INDEX_TABLE + " WHERE table_name = ?";
+        return pool.write(conn -> withStatement(conn, sql, pstmt -> {
+            pstmt.setString(1, tableName);
+            Set<String> indexes = new LinkedHashSet<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    indexes.add(rs.getString(1));
                 }
             }
+            return indexes;
+        }));
+    }
 
-            if (jsonFilePath.length() == 0) {
-                schema = new HashMap<>();
-                log.warning("Schema file is empty. Add a schema and reload");
-                return;
+    /**
+     * Get the Indexes created by CREATE INDEX that contain a Column(live Database)
+     * @param tableName
+     * @param column
+     * @return List<Indexname>
+     * @throws SQLException
+     */
+    private List<String> getIndexesOnColumn(String tableName, String column) throws SQLException {
+        String sql = "SELECT DISTINCT il.name FROM pragma_index_list(?) il, pragma_index_info(il.name) ii"
+                + " WHERE il.origin = 'c' AND ii.name = ?";
+        return pool.write(conn -> withStatement(conn, sql, pstmt -> {
+            pstmt.setString(1, tableName);
+            pstmt.setString(2, column);
+            List<String> indexes = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    indexes.add(rs.getString(1));
+                }
             }
+            return indexes;
+        }));
+    }
 
-            ObjectMapper mapper = new ObjectMapper();
-            schema = mapper.readValue(jsonFilePath, Map.class);
-            log.info("Schema loaded");
-            createSchema();
-        } catch (IOException e) {
-            log.severe("Error loading schema: " + e.getMessage());
-            throw new RuntimeException(e);
+    private String indexName(String tableName, Map<String, Object> index) {
+        Object name = index.get("name");
+        if (name != null) {
+            return name.toString();
         }
+        return "idx_" + tableName + "_" + String.join("_", indexColumns(index));
     }
 
-    private void createSchema(){
-        if(schema == null){
-            log.severe("Schema is Empty or isn't loaded correctly");
-            return;
+    private List<String> indexColumns(Map<String, Object> index) {
+        Object columns = index.get("columns");
+        if (columns instanceof String[] array) {
+            return Arrays.asList(array);
         }
-        for (Map.Entry<String, Map<String, Object>> entry : schema.entrySet()) {
-            //Load Table/Columns
-            String tableKey = entry.getKey();
-            Map<String, Object> tableDef = entry.getValue();
-            TableConfig conf = new TableConfig((String) tableDef.get("table"));
-
-            // Set columns
-            conf.addColumnList((List<Map<String, String>>) tableDef.get("columns"));
-
-            // Extract primary_keys and set them
-            List<String> primaryKeyList = (List<String>) tableDef.get("primary_keys");
-            if (primaryKeyList != null) {
-                String[] primaryKeys = primaryKeyList.toArray(new String[0]);
-                conf.setPrimary(primaryKeys);
+        if (columns instanceof List<?> list) {
+            List<String> names = new ArrayList<>(list.size());
+            for (Object column : list) {
+                names.add(String.valueOf(column));
             }
-            createTable(conf);
-            migrateTable(conf);
+            return names;
         }
+        return Collections.emptyList();
     }
 
-    //##################################################################################################################
-    //###########################################Utils##################################################################
-    //##################################################################################################################
+    private String indexDefinition(Map<String, Object> index) {
+        Object where = index.get("where");
+        return indexDefinition(indexColumns(index), Boolean.TRUE.equals(index.get("unique")), where == null ? null : where.toString());
+    }
 
     /**
-     * Get all Columns from a Table(live Database)
-     * @param tableName
-     * @return
-     * @throws SQLException
+     * Normalized Form of a declared Index for the Schema Hash
+     * @param columns
+     * @param unique
+     * @param where
+     * @return String
      */
-    private Map<String, String> getExistingColumns(String tableName) throws SQLException {
-        Map<String, String> columns = new LinkedHashMap<>();
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + tableName + ")")) {
-            while (rs.next()) {
-                columns.put(rs.getString("name"), rs.getString("type").toUpperCase());
-            }
+    private String indexDefinition(List<String> columns, boolean unique, String where) {
+        String definition = (unique ? "UNIQUE " : "") + String.join(",", columns).toLowerCase();
+        if (where != null && !where.isBlank()) {
+            definition += " WHERE " + where.trim().replaceAll("\\s+", " ");
         }
-        return columns;
+        return definition;
+    }
+
+    private String indexSql(String tableName, String indexName, Map<String, Object> index) {
+        StringBuilder sql = new StringBuilder("CREATE ");
+        if (Boolean.TRUE.equals(index.get("unique"))) {
+            sql.append("UNIQUE ");
+        }
+        sql.append("INDEX IF NOT EXISTS ").append(indexName).append(" ON ").append(tableName)
+                .append(" (").append(String.join(", ", indexColumns(index))).append(")");
+        Object where = index.get("where");
+        if (where != null && !where.toString().isBlank()) {
+            sql.append(" WHERE ").append(where);
+        }
+        return sql.toString();
     }
 
     /**
-     * Get all PK froms a Table(live Database)
-     * @param tableName
-     * @return
-     * @throws SQLException
+     * Normalized CREATE INDEX Statement to compare declared and existing Indexes, keeps Sort Order and Expressions
+     * Keywords and Identifiers are lower case, Quotes around Identifiers, IF NOT EXISTS and Whitespace are dropped,
+     * String Literals stay as they are
+     * @param sql
+     * @return String
      */
-    private Set<String> getExistingPrimaryKeys(String tableName) throws SQLException {
-        Set<String> primaryKeys = new LinkedHashSet<>();
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + tableName + ")")) {
-            while (rs.next()) {
-                if (rs.getInt("pk") > 0) {
-                    primaryKeys.add(rs.getString("name"));
+    static String normalizeIndexSql(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                int end = sql.indexOf('\'', i + 1);
+                while (end >= 0 && end + 1 < sql.length() && sql.charAt(end + 1) == '\'') {
+                    end = sql.indexOf('\'', end + 2);
                 }
+                end = end < 0 ? sql.length() - 1 : end;
+                appendToken(normalized, space, sql.substring(i, end + 1));
+                space = false;
+                i = end;
+            } else if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+            } else if (c == '"' || c == '`' || c == '[' || c == ']') {
+                //Identifier Quotes, e.g. added by ALTER TABLE RENAME
+            } else {
+                appendToken(normalized, space, String.valueOf(Character.toLowerCase(c)));
+                space = false;
             }
         }
-        return primaryKeys;
+        return normalized.toString().replaceFirst("^create (unique )?index if not exists ", "create $1index ");
+    }
+
+    private static void appendToken(StringBuilder normalized, boolean space, String token) {
+        char first = token.charAt(0);
+        char last = normalized.length() > 0 ? normalized.charAt(normalized.length() - 1) : ' ';
+        //No Space around Punctuation: "(a , b)" = "(a,b)"
+        if (space && "(),".indexOf(first) < 0 && "(,".indexOf(last) < 0) {
+            normalized.append(' ');
+        }
+        normalized.append(token);
     }
 
     /**
      * Checks if Schema = DbTable
-     * @param existingCols
-     * @param existingPKs
+     * @param live
      * @param newCols
      * @param newPKs
      * @return
      */
-    private boolean schemasMatch(Map<String, String> existingCols, Set<String> existingPKs,
-                                 List<Map<String, String>> newCols, Set<String> newPKs) {
-        if (existingCols.size() != newCols.size()) return false;
+    private boolean schemasMatch(TableInfo live, List<Map<String, String>> newCols, Set<String> newPKs) {
+        if (live.columns.size() != newCols.size()) return false;
 
         for (Map<String, String> col : newCols) {
-            String name = col.get("name");
-            String type = col.get("type").toUpperCase();
-            if (!type.equals(existingCols.getOrDefault(name, ""))) return false;
+            if (!columnMatches(live, col.get("name"), col.get("type"))) return false;
         }
 
-        return existingPKs.equals(newPKs);
+        return live.primaryKeys.equals(newPKs);
     }
 
     /**
-     * Creates Backup Table
-     * @param tableName
-     * @param backupName
-     * @param columns
+     * Checks a configured Column against a live Column. PRAGMA table_info only reports Type, NOT NULL and DEFAULT,
+     * other Constraints (UNIQUE, CHECK, COLLATE, ...) are looked up in the CREATE Statement of the Table
+     * @param live
+     * @param liveName Name of the live Column
+     * @param type     configured Type with Constraints
+     * @return boolean
      */
-    private void createBackupTable(String tableName, String backupName, List<String> columns) {
-        String columnList = String.join(", ", columns);
-        String sql = "CREATE TEMP TABLE " + backupName + " AS SELECT " + columnList + " FROM " + tableName;
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            log.info("Backup table '" + backupName + "' created.");
-        } catch (SQLException e) {
-            log.warning("Backup creation failed: " + e.getMessage());
+    private static boolean columnMatches(TableInfo live, String liveName, String type) {
+        if (!columnDefinition(type).equals(live.columns.get(liveName))) {
+            return false;
+        }
+        if (!OTHER_CONSTRAINT.matcher(maskStrings(type)).find()) {
+            return true;
         }
+        String column = normalizeIndexSql(liveName + " " + type);
+        return live.sql.contains("(" + column) || live.sql.contains("," + column);
     }
 
     /**
-     * Insertet Data from backupName to tableName
-     * @param tableName
-     * @param backupName
-     * @param columns
+     * Type, NOT NULL and DEFAULT of a configured Column Type, comparable with the PRAGMA table_info Values
+     * @param type e.g. "INTEGER NOT NULL DEFAULT 0"
+     * @return String
      */
-    private void restoreDataFromBackup(String tableName, String backupName, List<String> columns) {
-        String columnList = String.join(", ", columns);
-        String sql = "INSERT INTO " + tableName + " (" + columnList + ") SELECT " + columnList + " FROM " + backupName;
+    static String columnDefinition(String type) {
+        String masked = maskStrings(type);
+        Matcher constraint = COLUMN_CONSTRAINT.matcher(masked);
+        String baseType = constraint.find() ? type.substring(0, constraint.start()) : type;
+
+        String defaultValue = null;
+        Matcher dflt = DEFAULT_VALUE.matcher(masked);
+        if (dflt.find()) {
+            int start = dflt.end(), end = start;
+            if (masked.charAt(start) == '(') {
+                //PRAGMA reports Expressions without the outer Parentheses
+                int depth = 0;
+                do {
+                    depth += masked.charAt(end) == '(' ? 1 : masked.charAt(end) == ')' ? -1 : 0;
+                    end++;
+                } while (depth > 0 && end < masked.length());
+                defaultValue = type.substring(start + 1, Math.max(start + 1, end - 1));
+            } else {
+                while (end < masked.length() && !Character.isWhitespace(masked.charAt(end))) {
+                    end++;
+                }
+                defaultValue = type.substring(start, end);
+            }
+        }
+        return columnDefinition(baseType, NOT_NULL.matcher(masked).find(), defaultValue);
+    }
 
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            log.info("Data restored to new table from backup.");
-        } catch (SQLException e) {
-            log.warning("Failed to restore data: " + e.getMessage());
+    private static String columnDefinition(String baseType, boolean notNull, String defaultValue) {
+        StringBuilder definition = new StringBuilder(normalizeIndexSql(baseType));
+        if (notNull) {
+            definition.append(" not null");
+        }
+        if (defaultValue != null) {
+            definition.append(" default ").append(normalizeIndexSql(defaultValue));
         }
+        return definition.toString();
     }
+
+    /**
+     * Replaces the Content of String Literals, so Keywords inside them aren't matched. Keeps the Length
+     * @param sql
+     * @return String
+     */
+    private static String maskStrings(String sql) {
+        StringBuilder masked = new StringBuilder(sql);
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '\'') {
+                quoted = !quoted;
+            } else if (quoted) {
+                masked.setCharAt(i, '_');
+            }
+        }
+        return masked.toString();
+    }
+
+    /**
+     * CREATE TABLE Statement of a TableConfig
+     * @param tableName Name of the created Table, differs from the Config during a Rebuild
+     * @param conf
+     * @return String
+     */
+    private String buildCreateTableSql(String tableName, TableConfig conf) {
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS " + tableName + " (");
+
+        List<Map<String, String>> columns = conf.getTableColumns();
+        String[] primaryKeys = conf.getPrimaryKeys();
+
+        for (int i = 0; i < columns.size(); i++) {
+            Map<String, String> col = columns.get(i);
+            sql.append(col.get("name")).append(" ").append(col.get("type"));
+            if (i < columns.size() - 1) {
+                sql.append(", ");
+            }
+        }
+
+        // Primary Key Definition
+        if (primaryKeys != null && primaryKeys.length > 0) {
+            sql.append(", PRIMARY KEY (");
+            sql.append(String.join(", ", primaryKeys));
+            sql.append(")");
+        }
+
+        return sql.append(");").toString();
+    }
+
     //##################################################################################################################
     //###########################################Addition-Interfaces####################################################
     //##################################################################################################################
 
     //###############################################CRUD###############################################################
 
+    /**
+     *  Select Row/Rows with raw String Conditions
+     * @param table     users
+     * @param columns   ["id", "name", "age"]
+     * @param condition ["age > 18", "name is not null"]
+     * @param sort      ["name desc", "age asc"]
+     * @return ReturnSet
+     */
+    public ReturnSet select(String table, String[] columns, String[] condition, String[] sort) {
+        return selectWhere(table, columns, Condition.raw(condition), sort);
+    }
+
+    /**
+     * Select the first Rows
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @param limit
+     * @return ReturnSet
+     */
+    public ReturnSet selectWhere(String table, String[] columns, Condition condition, String[] sort, int limit) {
+        return selectWhere(table, columns, condition, sort, limit, 0);
+    }
+
     /**
      * Select without order
      * @param table
@@ -575,7 +2745,18 @@ public class MineDb {
      * @return ReturnSet
      */
     public ReturnSet select(String table, String[] columns, String[] condition) {
-        return select(table, columns, condition, null);
+        return selectWhere(table, columns, Condition.raw(condition), null);
+    }
+
+    /**
+     * Select without order
+     * @param table
+     * @param columns
+     * @param condition
+     * @return ReturnSet
+     */
+    public ReturnSet selectWhere(String table, String[] columns, Condition condition) {
+        return selectWhere(table, columns, condition, null);
     }
 
     /**
@@ -585,7 +2766,7 @@ public class MineDb {
      * @return ReturnSet
      */
     public ReturnSet select(String table, String[] columns) {
-        return select(table, columns, null, null);
+        return selectWhere(table, columns, (Condition) null, null);
     }
 
     /**
@@ -594,7 +2775,31 @@ public class MineDb {
      * @return ReturnSet
      */
     public ReturnSet select(String table) {
-        return select(table, null, null, null);
+        return selectWhere(table, null, (Condition) null, null);
+    }
+
+    /**
+     * Select Stream with default Fetch Size
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @return Stream of Rows, must be closed
+     * @throws IllegalStateException if the Query fails
+     */
+    public Stream<Map<String, String>> selectStream(String table, String[] columns, Condition condition, String[] sort) {
+        return selectStream(table, columns, condition, sort, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     *  Update Rows under raw String Conditions
+     * @param table     users
+     * @param data      [name=Smith, age=31, ...]
+     * @param condition ["age<50", "id=1"]
+     * @return ReturnSet
+     */
+    public ReturnSet update(String table, UpdateRow data, String[] condition) {
+        return updateWhere(table, data, Condition.raw(condition));
     }
 
     /**
@@ -605,35 +2810,197 @@ public class MineDb {
      * @return
      */
     public ReturnSet update(String table, UpdateRow data) {
-        return update(table, data, null);
+        return updateWhere(table, data, (Condition) null);
+    }
+
+    /**
+     * Delete Rows under raw String Conditions
+     * @param table     users
+     * @param condition ["age > 150", "name != null"]
+     * @return ReturnSet
+     */
+    public ReturnSet delete(String table, String[] condition) {
+        return deleteWhere(table, Condition.raw(condition));
     }
 
     /**
      * Insert multiple Rows
+     * Rows with the same Columns are inserted as Batch, one Transaction per Batch Size
+     * (one Savepoint per Batch Size inside a running Transaction)
+     * Failed Rows are reported with their Index by getFailedRows()
      * @param table
      * @param rows
      * @return
      */
     public ReturnSet insert(String table, InsertMultiRows rows){
+        return insertBatch(QueryMetrics.Operation.INSERT, table, rows, columns -> buildInsertSql(table, columns));
+    }
+
+    /**
+     * Upsert multiple Rows, batched like insert()
+     * @param table
+     * @param rows
+     * @param conflictColumns Columns of a Primary Key or Unique Index, default the Primary Keys of the Table
+     * @return ReturnSet
+     */
+    public ReturnSet upsert(String table, InsertMultiRows rows, String... conflictColumns) {
+        String[] conflict = conflictColumns(table, conflictColumns);
+        if (conflict.length == 0) {
+            log.severe("No conflict columns for upsert into " + table);
+            ReturnSet returnSet = new ReturnSet();
+            returnSet.setError(ReturnSet.ReturnErrors.NO_PRIMARY_KEY);
+            return returnSet;
+        }
+        return insertBatch(QueryMetrics.Operation.UPSERT, table, rows, columns -> buildUpsertSql(table, columns, conflict));
+    }
+
+    private ReturnSet insertBatch(QueryMetrics.Operation operation, String table, InsertMultiRows rows,
+                                  Function<String[], String> sqlBuilder) {
         ReturnSet returnSet = new ReturnSet();
-        int insertedCount = 0;
+        long startedAt = metricsStart();
+        if (rows == null || rows.isEmpty()) {
+            log.severe("No data provided for insert operation");
+            returnSet.setError(ReturnSet.ReturnErrors.NO_DATA);
+            return returnSet;
+        }
 
+        //Group Row Indexes by Column Set
+        Map<Set<String>, List<Integer>> groups = new LinkedHashMap<>();
         for (int i = 0; i < rows.size(); i++) {
             InsertRow row = rows.get(i);
-            ReturnSet tmpReturnSet = insert(table, row);
-            if(tmpReturnSet.getError() == ReturnSet.ReturnErrors.NONE){
-                insertedCount++;
+            if (row == null || row.isEmpty()) {
+                returnSet.addFailedRow(i, new SQLException("No data provided for row " + i));
+                continue;
             }
+            groups.computeIfAbsent(new TreeSet<>(Arrays.asList(row.getColumns())), k -> new ArrayList<>()).add(i);
+        }
+
+        int[] insertedCount = {0};
+        try {
+            pool.write(conn -> {
+                for (Map.Entry<Set<String>, List<Integer>> group : groups.entrySet()) {
+                    String[] columns = group.getKey().toArray(new String[0]);
+                    List<Integer> indexes = group.getValue();
+
+                    for (int start = 0; start < indexes.size(); start += batchSize) {
+                        List<Integer> chunk = indexes.subList(start, Math.min(start + batchSize, indexes.size()));
+                        runInTransaction(() -> insertedCount[0] += withStatement(conn, sqlBuilder.apply(columns),
+                                pstmt -> insertChunk(conn.getConnection(), pstmt, rows, chunk, columns, returnSet)));
+                        for (int index : chunk) {
+                            InsertRow row = rows.get(index);
+                            invalidateCachedRows(table, rowValues(columns, row::getValue));
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            log.severe("Error executing INSERT batch: " + e.getMessage());
+            returnSet.setChangedRows(insertedCount[0]);
+            returnSet.setError(errorOf(e), e);
+            record(operation, table, startedAt, insertedCount[0], returnSet);
+            return returnSet;
         }
 
-        returnSet.setChangedRows(insertedCount);
-        if(insertedCount != rows.size()){
+        returnSet.setChangedRows(insertedCount[0]);
+        if (returnSet.hasFailedRows()) {
+            log.warning(returnSet.getFailedRows().size() + " of " + rows.size() + " rows couldn't be inserted into " + table);
             returnSet.setError(ReturnSet.ReturnErrors.PARTLY_INSERT);
+        } else {
+            returnSet.setError(ReturnSet.ReturnErrors.NONE);
         }
 
+        record(operation, table, startedAt, insertedCount[0], returnSet);
         return returnSet;
     }
 
+    //###############################################Async##############################################################
+
+    /**
+     * Async Select without order
+     * @param table
+     * @param columns
+     * @param condition
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> selectAsync(String table, String[] columns, String[] condition) {
+        return selectWhereAsync(table, columns, Condition.raw(condition), null);
+    }
+
+    /**
+     * Async Select without order
+     * @param table
+     * @param columns
+     * @param condition
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> selectWhereAsync(String table, String[] columns, Condition condition) {
+        return selectWhereAsync(table, columns, condition, null);
+    }
+
+    /**
+     * Async Select with raw String Conditions
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> selectAsync(String table, String[] columns, String[] condition, String[] sort) {
+        return selectWhereAsync(table, columns, Condition.raw(condition), sort);
+    }
+
+    /**
+     * Async Select without order and condition
+     * @param table
+     * @param columns
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> selectAsync(String table, String[] columns) {
+        return selectWhereAsync(table, columns, (Condition) null, null);
+    }
+
+    /**
+     * Async Select without order, condition and column-selection
+     * @param table
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> selectAsync(String table) {
+        return selectWhereAsync(table, null, (Condition) null, null);
+    }
+
+    /**
+     * Async Update without Condition
+     * Warning! Updates all defined Columns in a Table
+     * @param table
+     * @param data
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> updateAsync(String table, UpdateRow data) {
+        return updateWhereAsync(table, data, (Condition) null);
+    }
+
+    /**
+     * Async Update with raw String Conditions
+     * @param table
+     * @param data
+     * @param condition
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> updateAsync(String table, UpdateRow data, String[] condition) {
+        return updateWhereAsync(table, data, Condition.raw(condition));
+    }
+
+    /**
+     * Async Delete with raw String Conditions
+     * @param table
+     * @param condition
+     * @return CompletableFuture<ReturnSet>
+     */
+    public CompletableFuture<ReturnSet> deleteAsync(String table, String[] condition) {
+        return deleteWhereAsync(table, Condition.raw(condition));
+    }
+
     //#############################################Schema###############################################################
 
     /**
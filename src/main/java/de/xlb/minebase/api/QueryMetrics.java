@@ -0,0 +1,209 @@
+package de.xlb.minebase.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and Latency Histograms per Operation and Table
+ * Latencies are counted in Power-of-2 Nanosecond Buckets, Percentiles are the upper Bucket Bound (at most the Max)
+ * Enable with MineDb.enableMetrics(), disabled Metrics cost one null Check per Query
+ */
+public class QueryMetrics {
+    //Vars
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * Recorded Operations
+     */
+    public enum Operation {
+        SELECT,
+        INSERT,
+        UPSERT,
+        UPDATE,
+        DELETE,
+        DDL,
+        COMMIT
+    }
+
+    QueryMetrics() {
+    }
+
+    /**
+     * Record one Query
+     * @param operation
+     * @param table      "*" if the Operation spans Tables
+     * @param nanos      Duration
+     * @param rows       read or written Rows
+     * @param failed
+     */
+    void record(Operation operation, String table, long nanos, long rows, boolean failed) {
+        stats.computeIfAbsent(operation + " " + table, k -> new Stats(operation, table)).record(nanos, rows, failed);
+    }
+
+    /**
+     * Copy of the current Values, sorted by total Time descending
+     * @return List<OperationStats>
+     */
+    public List<OperationStats> snapshot() {
+        List<OperationStats> snapshot = new ArrayList<>();
+        for (Stats entry : stats.values()) {
+            snapshot.add(entry.snapshot());
+        }
+        snapshot.sort(Comparator.comparing(OperationStats::getTotalTime).reversed());
+        return snapshot;
+    }
+
+    /**
+     * Clear all Counters and restart the Recording Window
+     */
+    public void reset() {
+        stats.clear();
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * Start of Recording, moved by reset()
+     * @return long, epoch Millis
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * Live Counters of one Operation on one Table
+     */
+    private static class Stats {
+        private static final int BUCKETS = 64;
+
+        private final Operation operation;
+        private final String table;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private Stats(Operation operation, String table) {
+            this.operation = operation;
+            this.table = table;
+        }
+
+        private void record(long nanos, long rowCount, boolean failed) {
+            count.increment();
+            rows.add(rowCount);
+            totalNanos.add(nanos);
+            if (failed) {
+                errors.increment();
+            }
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            histogram.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+        }
+
+        private OperationStats snapshot() {
+            long[] buckets = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = histogram.get(i);
+                total += buckets[i];
+            }
+            long max = maxNanos.get();
+            return new OperationStats(operation, table, count.sum(), errors.sum(), rows.sum(), totalNanos.sum(),
+                    Math.min(max, percentile(buckets, total, 0.50)), Math.min(max, percentile(buckets, total, 0.99)), max);
+        }
+
+        private static long percentile(long[] buckets, long total, double percentile) {
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Values of one Operation on one Table at the Time of the Snapshot
+     */
+    public static class OperationStats {
+        private final Operation operation;
+        private final String table;
+        private final long count;
+        private final long errors;
+        private final long rows;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        private OperationStats(Operation operation, String table, long count, long errors, long rows,
+                               long totalNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+            this.operation = operation;
+            this.table = table;
+            this.count = count;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Rows read by Selects, changed Rows by Writes
+         * @return long
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        public Duration getTotalTime() {
+            return Duration.ofNanos(totalNanos);
+        }
+
+        public Duration getP50() {
+            return Duration.ofNanos(p50Nanos);
+        }
+
+        public Duration getP99() {
+            return Duration.ofNanos(p99Nanos);
+        }
+
+        public Duration getMax() {
+            return Duration.ofNanos(maxNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: %d calls, %d errors, %d rows, p50 %.2fms, p99 %.2fms, max %.2fms, total %dms",
+                    operation, table, count, errors, rows, p50Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6, totalNanos / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package de.xlb.minebase.api;
+
+import de.xlb.minebase.types.ReturnSet;
+
+import java.util.*;
+
+/**
+ * Read-Through Cache for single Rows of one Table, keyed by Primary Key Values
+ * Entries are evicted by Size (LRU) and Time since loading
+ * Key Values are compared as Strings, so 1 and "1" hit the same Row
+ */
+public class RowCache {
+    //Vars
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<List<String>, CachedRow> rows;
+
+    //Stats
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long generation = 0;
+
+    /**
+     * Creates Cache
+     * @param maxSize   Max cached Rows
+     * @param ttlMillis Time a Row is served from Cache, 0 = unlimited
+     */
+    RowCache(int maxSize, long ttlMillis) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : Long.MAX_VALUE;
+        this.rows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, CachedRow> eldest) {
+                if (size() <= RowCache.this.maxSize) {
+                    return false;
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get cached Row as ReturnSet
+     * @param keyValues
+     * @return ReturnSet, null on Miss
+     */
+    synchronized ReturnSet get(Collection<?> keyValues) {
+        List<String> key = key(keyValues);
+        CachedRow cached = rows.get(key);
+        if (cached == null || System.nanoTime() - cached.loadedAt > ttlNanos) {
+            if (cached != null) {
+                rows.remove(key);
+                evictions++;
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+
+        ReturnSet returnSet = new ReturnSet();
+        returnSet.setColumns(cached.columns);
+        returnSet.addRow(cached.values);
+        returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        return returnSet;
+    }
+
+    /**
+     * Changes with every Invalidation, read before loading a Row
+     * @return long
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache the Row of a ReturnSet
+     * Skipped if the Cache was invalidated since the Row was loaded
+     * @param keyValues
+     * @param returnSet  Result with exactly one Row
+     * @param generation generation() before the Row was loaded
+     */
+    synchronized void put(Collection<?> keyValues, ReturnSet returnSet, long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        rows.put(key(keyValues), new CachedRow(returnSet.getColumnNames(), returnSet.getRowValues(0)));
+    }
+
+    /**
+     * Remove one Row
+     * @param keyValues
+     */
+    synchronized void invalidate(Collection<?> keyValues) {
+        generation++;
+        rows.remove(key(keyValues));
+    }
+
+    /**
+     * Remove all Rows
+     */
+    synchronized void clear() {
+        generation++;
+        rows.clear();
+    }
+
+    /**
+     * Lookups served from Cache
+     * @return long
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Lookups that had to query the Database
+     * @return long
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Rows removed because the Cache was full or the Row expired
+     * @return long
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Hits / Lookups
+     * @return double between 0 and 1
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Clear Hit, Miss and Eviction Counters, cached Entries stay
+     */
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Count of cached Rows
+     * @return int
+     */
+    public synchronized int size() {
+        return rows.size();
+    }
+
+    private static List<String> key(Collection<?> keyValues) {
+        List<String> key = new ArrayList<>(keyValues.size());
+        for (Object value : keyValues) {
+            key.add(String.valueOf(value));
+        }
+        return key;
+    }
+
+    private static class CachedRow {
+        private final String[] columns;
+        private final Object[] values;
+        private final long loadedAt = System.nanoTime();
+
+        private CachedRow(String[] columns, Object[] values) {
+            this.columns = columns;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package de.xlb.minebase.api;
+
+import de.xlb.minebase.types.ConnectionConfig;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Loads a Schema File that spreads its Tables over multiple Database Files
+ * Tables choose their Database with "database": "economy.db", default is data.db
+ * Each Database gets its own MineDb, the Databases are created/migrated in parallel,
+ * Tables of the same Database one after another
+ */
+public class SchemaLoader {
+    //Vars
+    private final Logger log;
+    private final File pluginPath;
+    private ConnectionConfig connectionConfig = new ConnectionConfig();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private final Map<String, Duration> timings = new ConcurrentHashMap<>();
+
+    /**
+     * Creates Loader
+     * @param log
+     * @param pluginPath Folder of the Schema and Database Files
+     */
+    public SchemaLoader(Logger log, File pluginPath) {
+        this.log = log;
+        this.pluginPath = pluginPath;
+    }
+
+    /**
+     * Connection Settings of the opened Databases
+     * @param connectionConfig
+     */
+    public void setConnectionConfig(ConnectionConfig connectionConfig) {
+        this.connectionConfig = connectionConfig;
+    }
+
+    /**
+     * Max Databases migrated at the same Time
+     * @param parallelism
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Opens all Databases of a Schema File and applies their Tables
+     * Databases that can't be opened or migrated are logged and missing in the Result, load() waits for all others.
+     * If the Thread is interrupted all opened Databases are closed and the Result is empty
+     * @param jsonName File in the Plugin Folder
+     * @return Map<Database, MineDb>, the Caller closes the Databases
+     */
+    public Map<String, MineDb> load(String jsonName) {
+        Map<String, Map<String, Object>> tableDefs = MineDb.readSchema(new File(pluginPath, jsonName), log);
+
+        //Group Tables by Database
+        Map<String, Map<String, Map<String, Object>>> databases = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : tableDefs.entrySet()) {
+            //readSchema() skipped Tables whose "database" isn't a String
+            Object database = entry.getValue().get("database");
+            String file = database instanceof String name ? name : MineDb.DEFAULT_DATABASE;
+            databases.computeIfAbsent(file, k -> new LinkedHashMap<>()).put(entry.getKey(), entry.getValue());
+        }
+
+        timings.clear();
+        long start = System.nanoTime();
+        Map<String, MineDb> result = new ConcurrentHashMap<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, databases.size())), runnable -> {
+            Thread thread = new Thread(runnable, "Minebase-schema");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<String, Map<String, Map<String, Object>>> database : databases.entrySet()) {
+                futures.add(executor.submit(() -> applyDatabase(database.getKey(), database.getValue(), result, cancelled)));
+            }
+            //Every Database is waited for, one failed Database doesn't hide the others
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.severe("Error loading schema: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.severe("Interrupted while loading schema, closing the opened databases");
+            synchronized (result) {
+                cancelled.set(true);
+                closeAll(result.values());
+                result.clear();
+            }
+            executor.shutdownNow();
+        } finally {
+            executor.shutdown();
+        }
+
+        log.info("Schema applied to " + result.size() + " databases in " + Duration.ofNanos(System.nanoTime() - start).toMillis() + "ms"
+                + slowestTable().map(slowest -> ", slowest table " + slowest.getKey() + " (" + slowest.getValue().toMillis() + "ms)").orElse(""));
+
+        //Keep the Order of the Schema File
+        Map<String, MineDb> ordered = new LinkedHashMap<>();
+        for (String database : databases.keySet()) {
+            if (result.containsKey(database)) {
+                ordered.put(database, result.get(database));
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Time each Table took in the last load()
+     * @return Map<Database/Tablename, Duration>
+     */
+    public Map<String, Duration> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    private void applyDatabase(String database, Map<String, Map<String, Object>> tableDefs, Map<String, MineDb> result,
+                               AtomicBoolean cancelled) {
+        MineDb db;
+        try {
+            db = new MineDb(log, pluginPath, database, connectionConfig, false);
+        } catch (Exception e) {
+            log.severe("Database " + database + " couldn't be opened: " + e.getMessage());
+            return;
+        }
+        try {
+            db.applySchema(tableDefs);
+        } catch (RuntimeException e) {
+            log.severe("Schema of " + database + " couldn't be applied: " + e);
+            closeAll(List.of(db));
+            return;
+        }
+        for (Map.Entry<String, Duration> timing : db.getSchemaTimings().entrySet()) {
+            timings.put(database + "/" + timing.getKey(), timing.getValue());
+        }
+        //load() gave up, nobody would close the Database
+        synchronized (result) {
+            if (cancelled.get()) {
+                closeAll(List.of(db));
+            } else {
+                result.put(database, db);
+            }
+        }
+    }
+
+    private void closeAll(Collection<MineDb> databases) {
+        for (MineDb db : databases) {
+            try {
+                db.close();
+            } catch (SQLException e) {
+                log.warning("Error closing " + db.getDbName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private Optional<Map.Entry<String, Duration>> slowestTable() {
+        return timings.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+}
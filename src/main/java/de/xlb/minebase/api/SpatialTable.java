@@ -0,0 +1,246 @@
+package de.xlb.minebase.api;
+
+import de.xlb.minebase.types.Condition;
+import de.xlb.minebase.types.InsertRow;
+import de.xlb.minebase.types.ReturnSet;
+import de.xlb.minebase.types.TableConfig;
+import de.xlb.minebase.types.UpdateRow;
+
+/**
+ * Table of Rows located at Block Coordinates (Claims, Block Logs, custom Block States, ...)
+ * Every Row carries world, x, y, z and a packed chunk_key = (chunkX << 32) | (chunkZ + 2^31).
+ * The Index on (world, chunk_key) turns Chunk, Box and Radius Queries into Range Scans:
+ * Keys of one Chunk Column (same chunkX) are consecutive, so a Box needs one Range per Chunk Column
+ */
+public class SpatialTable {
+    public static final String WORLD = "world";
+    public static final String X = "x";
+    public static final String Y = "y";
+    public static final String Z = "z";
+    public static final String CHUNK_KEY = "chunk_key";
+
+    // Wider Boxes use one Range over all Chunk Columns and filter by x
+    private static final int MAX_CHUNK_RANGES = 32;
+
+    //Vars
+    private final MineDb db;
+    private final String table;
+
+    /**
+     * Spatial Queries on a Table created from tableConfig()
+     * @param db
+     * @param table
+     */
+    public SpatialTable(MineDb db, String table) {
+        this.db = db;
+        this.table = table;
+    }
+
+    /**
+     * Config with the Location Columns and the Chunk Index, add own Columns and the Primary Key before createTable()
+     * @param tableName
+     * @return TableConfig
+     */
+    public static TableConfig tableConfig(String tableName) {
+        TableConfig conf = new TableConfig(tableName);
+        conf.addColumn(WORLD, TableConfig.ColTypes.TEXT);
+        conf.addColumn(X, TableConfig.ColTypes.INTEGER);
+        conf.addColumn(Y, TableConfig.ColTypes.INTEGER);
+        conf.addColumn(Z, TableConfig.ColTypes.INTEGER);
+        conf.addColumn(CHUNK_KEY, TableConfig.ColTypes.INTEGER);
+        conf.addIndex(null, WORLD, CHUNK_KEY);
+        return conf;
+    }
+
+    /**
+     * Gets the Tablename
+     * @return String
+     */
+    public String getTableName() {
+        return table;
+    }
+
+    //##################################################################################################################
+    //################################################Keys##############################################################
+    //##################################################################################################################
+
+    /**
+     * Packed Key of a Chunk, ordered by chunkX then chunkZ
+     * @param chunkX
+     * @param chunkZ
+     * @return long
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | ((chunkZ ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packed Key of the Chunk containing a Block
+     * @param blockX
+     * @param blockZ
+     * @return long
+     */
+    public static long chunkKeyOfBlock(int blockX, int blockZ) {
+        return chunkKey(blockX >> 4, blockZ >> 4);
+    }
+
+    /**
+     * Sets the Location Columns of a Row
+     * @param row
+     * @param world
+     * @param x
+     * @param y
+     * @param z
+     */
+    public static void putLocation(InsertRow row, String world, int x, int y, int z) {
+        row.put(WORLD, world);
+        row.put(X, x);
+        row.put(Y, y);
+        row.put(Z, z);
+        row.put(CHUNK_KEY, chunkKeyOfBlock(x, z));
+    }
+
+    /**
+     * Moves a Row to another Location
+     * @param row
+     * @param world
+     * @param x
+     * @param y
+     * @param z
+     */
+    public static void putLocation(UpdateRow row, String world, int x, int y, int z) {
+        row.put(WORLD, world);
+        row.put(X, x);
+        row.put(Y, y);
+        row.put(Z, z);
+        row.put(CHUNK_KEY, chunkKeyOfBlock(x, z));
+    }
+
+    //##################################################################################################################
+    //################################################Conditions########################################################
+    //##################################################################################################################
+
+    /**
+     * Rows in one Chunk, a single Index Lookup
+     * @param world
+     * @param chunkX
+     * @param chunkZ
+     * @return Condition
+     */
+    public static Condition chunkCondition(String world, int chunkX, int chunkZ) {
+        return Condition.eq(WORLD, world).and(Condition.eq(CHUNK_KEY, chunkKey(chunkX, chunkZ)));
+    }
+
+    /**
+     * Rows inside a Block Box, Bounds are inclusive
+     * @param world
+     * @param minX
+     * @param minY
+     * @param minZ
+     * @param maxX
+     * @param maxY
+     * @param maxZ
+     * @return Condition
+     */
+    public static Condition boxCondition(String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int fromX = Math.min(minX, maxX), toX = Math.max(minX, maxX);
+        int fromZ = Math.min(minZ, maxZ), toZ = Math.max(minZ, maxZ);
+        int fromChunkX = fromX >> 4, toChunkX = toX >> 4;
+        int fromChunkZ = fromZ >> 4, toChunkZ = toZ >> 4;
+
+        //One Key Range per Chunk Column
+        Condition ranges = null;
+        if ((long) toChunkX - fromChunkX < MAX_CHUNK_RANGES) {
+            for (int chunkX = fromChunkX; chunkX <= toChunkX; chunkX++) {
+                Condition range = new Condition(WORLD + " = ? AND " + CHUNK_KEY + " BETWEEN ? AND ?",
+                        world, chunkKey(chunkX, fromChunkZ), chunkKey(chunkX, toChunkZ));
+                ranges = ranges == null ? range : ranges.or(range);
+            }
+        } else {
+            ranges = new Condition(WORLD + " = ? AND " + CHUNK_KEY + " BETWEEN ? AND ?",
+                    world, chunkKey(fromChunkX, fromChunkZ), chunkKey(toChunkX, toChunkZ));
+        }
+
+        //Exact Bounds inside the Chunks
+        return ranges.and(new Condition(X + " BETWEEN ? AND ? AND " + Z + " BETWEEN ? AND ? AND " + Y + " BETWEEN ? AND ?",
+                fromX, toX, fromZ, toZ, Math.min(minY, maxY), Math.max(minY, maxY)));
+    }
+
+    /**
+     * Rows within a Sphere around a Block, the Box around the Sphere is range scanned
+     * @param world
+     * @param x
+     * @param y
+     * @param z
+     * @param radius in Blocks, inclusive
+     * @return Condition
+     */
+    public static Condition radiusCondition(String world, int x, int y, int z, int radius) {
+        int r = Math.abs(radius);
+        Condition box = boxCondition(world, x - r, y - r, z - r, x + r, y + r, z + r);
+        return box.and(new Condition("(" + X + " - ?) * (" + X + " - ?) + (" + Y + " - ?) * (" + Y + " - ?) + ("
+                + Z + " - ?) * (" + Z + " - ?) <= ?", x, x, y, y, z, z, (long) r * r));
+    }
+
+    //##################################################################################################################
+    //################################################Queries###########################################################
+    //##################################################################################################################
+
+    /**
+     * Select all Rows of a Chunk
+     * @param world
+     * @param chunkX
+     * @param chunkZ
+     * @param columns   null for all
+     * @param condition additional Condition, may be null
+     * @return ReturnSet
+     */
+    public ReturnSet selectInChunk(String world, int chunkX, int chunkZ, String[] columns, Condition condition) {
+        return db.selectWhere(table, columns, chunkCondition(world, chunkX, chunkZ).and(condition), null);
+    }
+
+    public ReturnSet selectInChunk(String world, int chunkX, int chunkZ) {
+        return selectInChunk(world, chunkX, chunkZ, null, null);
+    }
+
+    /**
+     * Select all Rows inside a Block Box, Bounds are inclusive
+     * @param world
+     * @param minX
+     * @param minY
+     * @param minZ
+     * @param maxX
+     * @param maxY
+     * @param maxZ
+     * @param columns   null for all
+     * @param condition additional Condition, may be null
+     * @return ReturnSet
+     */
+    public ReturnSet selectInBox(String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                 String[] columns, Condition condition) {
+        return db.selectWhere(table, columns, boxCondition(world, minX, minY, minZ, maxX, maxY, maxZ).and(condition), null);
+    }
+
+    public ReturnSet selectInBox(String world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return selectInBox(world, minX, minY, minZ, maxX, maxY, maxZ, null, null);
+    }
+
+    /**
+     * Select all Rows within a Radius around a Block
+     * @param world
+     * @param x
+     * @param y
+     * @param z
+     * @param radius    in Blocks, inclusive
+     * @param columns   null for all
+     * @param condition additional Condition, may be null
+     * @return ReturnSet
+     */
+    public ReturnSet selectRadius(String world, int x, int y, int z, int radius, String[] columns, Condition condition) {
+        return db.selectWhere(table, columns, radiusCondition(world, x, y, z, radius).and(condition), null);
+    }
+
+    public ReturnSet selectRadius(String world, int x, int y, int z, int radius) {
+        return selectRadius(world, x, y, z, radius, null, null);
+    }
+}
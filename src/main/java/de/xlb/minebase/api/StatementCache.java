@@ -0,0 +1,188 @@
+package de.xlb.minebase.api;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * LRU Cache for PreparedStatements of one Connection
+ * Key: generated SQL, it contains Operation, Table, Columns and Condition
+ * Evicted Statements are closed, Statements in Use are closed when they are released
+ */
+public class StatementCache {
+    //Vars
+    private final Connection connection;
+    private final Logger log;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    // Borrow Count of Statements between prepare() and release()
+    private final Map<PreparedStatement, Integer> inUse = new IdentityHashMap<>();
+    // Evicted or invalidated Statements that are still in Use
+    private final Map<PreparedStatement, Boolean> closePending = new IdentityHashMap<>();
+
+    //Stats
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates Cache for a Connection
+     * @param connection
+     * @param maxSize    Max cached Statements, at least 1
+     * @param log
+     */
+    StatementCache(Connection connection, int maxSize, Logger log) {
+        this.connection = connection;
+        this.log = log;
+        this.maxSize = Math.max(1, maxSize);
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                evictions++;
+                retire(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get cached Statement or prepare a new one, hand it back with release()
+     * @param sql
+     * @return PreparedStatement
+     * @throws SQLException
+     */
+    synchronized PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt != null && !pstmt.isClosed()) {
+            hits++;
+        } else {
+            misses++;
+            pstmt = connection.prepareStatement(sql);
+            statements.put(sql, pstmt);
+        }
+        inUse.merge(pstmt, 1, Integer::sum);
+        return pstmt;
+    }
+
+    /**
+     * Hands back a Statement from prepare(), closes it if it was evicted in the meantime
+     * @param pstmt
+     */
+    synchronized void release(PreparedStatement pstmt) {
+        Integer count = inUse.get(pstmt);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            inUse.put(pstmt, count - 1);
+            return;
+        }
+        inUse.remove(pstmt);
+        if (closePending.remove(pstmt) != null) {
+            closeQuietly(pstmt);
+        }
+    }
+
+    /**
+     * Drops a Statement after a failed Execution, the next Use prepares it again
+     * (a Statement that failed, e.g. because its Table was dropped, can't be executed again)
+     * @param sql
+     */
+    synchronized void invalidate(String sql) {
+        PreparedStatement pstmt = statements.remove(sql);
+        if (pstmt != null) {
+            retire(pstmt);
+        }
+    }
+
+    /**
+     * Closes all cached Statements
+     */
+    synchronized void close() {
+        for (PreparedStatement pstmt : statements.values()) {
+            closeQuietly(pstmt);
+        }
+        for (PreparedStatement pstmt : closePending.keySet()) {
+            closeQuietly(pstmt);
+        }
+        statements.clear();
+        closePending.clear();
+        inUse.clear();
+    }
+
+    /**
+     * Connection of this Cache
+     * @return Connection
+     */
+    Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Statements served from Cache
+     * @return long
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Statements that had to be prepared
+     * @return long
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Statements closed because the Cache was full
+     * @return long
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Clear Hit, Miss and Eviction Counters, cached Entries stay
+     */
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Count of cached Statements
+     * @return int
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * Closes a Statement that left the Cache, or marks it to be closed on release() if it is in Use
+     * @param pstmt
+     */
+    private void retire(PreparedStatement pstmt) {
+        if (inUse.containsKey(pstmt)) {
+            closePending.put(pstmt, Boolean.TRUE);
+        } else {
+            closeQuietly(pstmt);
+        }
+    }
+
+    private void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            log.warning("Error closing cached statement: " + e.getMessage());
+        }
+    }
+}
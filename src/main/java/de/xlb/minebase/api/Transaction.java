@@ -0,0 +1,189 @@
+package de.xlb.minebase.api;
+
+import de.xlb.minebase.types.Condition;
+import de.xlb.minebase.types.InsertMultiRows;
+import de.xlb.minebase.types.InsertRow;
+import de.xlb.minebase.types.ReturnSet;
+import de.xlb.minebase.types.UpdateRow;
+
+import java.util.function.Consumer;
+
+/**
+ * Queries inside MineDb.transaction()
+ * A failed Query throws a TransactionException, which rolls the Transaction back
+ * Only valid on the Thread running the Transaction and until the Work returns
+ */
+public class Transaction {
+    //Vars
+    private final MineDb db;
+
+    Transaction(MineDb db) {
+        this.db = db;
+    }
+
+    /**
+     * Select Row/Rows, sees the uncommitted Changes of the Transaction
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @return ReturnSet
+     */
+    public ReturnSet selectWhere(String table, String[] columns, Condition condition, String[] sort) {
+        return check(db.selectWhere(table, columns, condition, sort));
+    }
+
+    public ReturnSet selectWhere(String table, String[] columns, Condition condition) {
+        return selectWhere(table, columns, condition, null);
+    }
+
+    /**
+     * Select a Slice of the sorted Rows
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @param limit
+     * @param offset
+     * @return ReturnSet
+     */
+    public ReturnSet selectWhere(String table, String[] columns, Condition condition, String[] sort, int limit, int offset) {
+        return check(db.selectWhere(table, columns, condition, sort, limit, offset));
+    }
+
+    /**
+     * Keyset Page, see MineDb.selectPage()
+     * @param table
+     * @param columns
+     * @param condition
+     * @param sort
+     * @param pageSize
+     * @param pageToken
+     * @return ReturnSet
+     */
+    public ReturnSet selectPage(String table, String[] columns, Condition condition, String[] sort,
+                                int pageSize, String pageToken) {
+        return check(db.selectPage(table, columns, condition, sort, pageSize, pageToken));
+    }
+
+    /**
+     * Insert or update an Entity, see MineDb.save()
+     * @param entity
+     * @return ReturnSet
+     */
+    public <T> ReturnSet save(T entity) {
+        return check(db.save(entity));
+    }
+
+    /**
+     * Insert one Row
+     * @param table
+     * @param data
+     * @return ReturnSet
+     */
+    public ReturnSet insert(String table, InsertRow data) {
+        return check(db.insert(table, data));
+    }
+
+    /**
+     * Insert multiple Rows, fails if any Row fails
+     * @param table
+     * @param rows
+     * @return ReturnSet
+     */
+    public ReturnSet insert(String table, InsertMultiRows rows) {
+        return check(db.insert(table, rows));
+    }
+
+    /**
+     * Insert or update one Row
+     * @param table
+     * @param data
+     * @param conflictColumns default the Primary Keys
+     * @return ReturnSet
+     */
+    public ReturnSet upsert(String table, InsertRow data, String... conflictColumns) {
+        return check(db.upsert(table, data, conflictColumns));
+    }
+
+    /**
+     * Insert or update multiple Rows, fails if any Row fails
+     * @param table
+     * @param rows
+     * @param conflictColumns default the Primary Keys
+     * @return ReturnSet
+     */
+    public ReturnSet upsert(String table, InsertMultiRows rows, String... conflictColumns) {
+        return check(db.upsert(table, rows, conflictColumns));
+    }
+
+    /**
+     * Update Rows
+     * @param table
+     * @param data
+     * @param condition
+     * @return ReturnSet
+     */
+    public ReturnSet updateWhere(String table, UpdateRow data, Condition condition) {
+        return check(db.updateWhere(table, data, condition));
+    }
+
+    /**
+     * Delete Rows
+     * @param table
+     * @param condition
+     * @return ReturnSet
+     */
+    public ReturnSet deleteWhere(String table, Condition condition) {
+        return check(db.deleteWhere(table, condition));
+    }
+
+    /**
+     * Runs Work in a Savepoint. If the Work throws, only its Changes are rolled back
+     * and the Transaction continues
+     * @param work
+     * @return ReturnSet, NONE if the Savepoint was kept
+     */
+    public ReturnSet savepoint(Consumer<Transaction> work) {
+        return db.transaction(work);
+    }
+
+    /**
+     * Rolls the whole Transaction back
+     */
+    public void rollback() {
+        ReturnSet returnSet = new ReturnSet();
+        returnSet.setError(ReturnSet.ReturnErrors.UNKNOWN);
+        throw new TransactionException("Rollback requested", returnSet);
+    }
+
+    private ReturnSet check(ReturnSet returnSet) {
+        if (returnSet.getError() != ReturnSet.ReturnErrors.NONE) {
+            throw new TransactionException("Query failed with " + returnSet.getError(), returnSet);
+        }
+        return returnSet;
+    }
+
+    /**
+     * Thrown by a failed Query, carries its ReturnSet
+     */
+    public static class TransactionException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        //Not serialized, null after Deserialization
+        private final transient ReturnSet returnSet;
+
+        TransactionException(String message, ReturnSet returnSet) {
+            super(message, returnSet.getException());
+            this.returnSet = returnSet;
+        }
+
+        /**
+         * ReturnSet of the failed Operation
+         * @return ReturnSet, null if the Exception was deserialized
+         */
+        public ReturnSet getReturnSet() {
+            return returnSet;
+        }
+    }
+}
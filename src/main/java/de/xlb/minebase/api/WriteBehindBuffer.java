@@ -0,0 +1,339 @@
+package de.xlb.minebase.api;
+
+import de.xlb.minebase.types.InsertRow;
+import de.xlb.minebase.types.ReturnSet;
+import de.xlb.minebase.types.UpdateRow;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Write-Behind Buffer for high-frequency Writes
+ * Writes are kept in Memory per Primary Key and coalesced:
+ * Values are last-write-wins per Column, Increments are summed up
+ * Pending Rows are flushed in one Transaction on a Timer, when the Size Threshold is reached and on close()
+ * Rows that fail to flush are dropped and logged
+ * Reads through MineDb don't see pending Writes until they are flushed
+ */
+public class WriteBehindBuffer {
+    //Vars
+    private final MineDb db;
+    private final Logger log;
+    private final int maxPendingRows;
+    private Map<String, Map<List<Object>, PendingRow>> pending = new LinkedHashMap<>();
+    private int pendingCount = 0;
+    private boolean flushRequested = false;
+
+    /**
+     * Creates Buffer for a Database
+     * @param db
+     * @param log
+     * @param maxPendingRows Flush is triggered when this many Rows are pending
+     */
+    WriteBehindBuffer(MineDb db, Logger log, int maxPendingRows) {
+        this.db = db;
+        this.log = log;
+        this.maxPendingRows = Math.max(1, maxPendingRows);
+    }
+
+    //##################################################################################################################
+    //################################################Writes############################################################
+    //##################################################################################################################
+
+    /**
+     * Buffer Insert of a Row, Row must contain all Primary Keys
+     * Flushed as Upsert, an existing Row is overwritten
+     * @param table
+     * @param data
+     * @return ReturnSet
+     */
+    public ReturnSet insert(String table, InsertRow data) {
+        if (data == null || data.isEmpty()) {
+            return error(ReturnSet.ReturnErrors.NO_DATA, "No data provided for buffered insert");
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String col : data.getColumns()) {
+            values.put(col, data.getValue(col));
+        }
+        return write(table, values, true);
+    }
+
+    /**
+     * Buffer Update of a Row, Row must contain all Primary Keys
+     * @param table
+     * @param data
+     * @return ReturnSet
+     */
+    public ReturnSet update(String table, UpdateRow data) {
+        if (data == null || data.isEmpty()) {
+            return error(ReturnSet.ReturnErrors.NO_DATA, "No data provided for buffered update");
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String col : data.getColumns()) {
+            values.put(col, data.getValue(col));
+        }
+        return write(table, values, false);
+    }
+
+    /**
+     * Buffer Increment of a Counter Column
+     * @param table
+     * @param column    kills
+     * @param delta     1
+     * @param keyValues Primary Key Values in Order of the Primary Keys, same Types as in insert/update (1 and "1" differ)
+     * @return ReturnSet
+     */
+    public ReturnSet increment(String table, String column, Number delta, Object... keyValues) {
+        String[] primaryKeys = db.getPrimaryKeys(table);
+        if (primaryKeys.length == 0 || keyValues == null || keyValues.length != primaryKeys.length) {
+            return error(ReturnSet.ReturnErrors.NO_PRIMARY_KEY, "Primary key values don't match primary keys of " + table);
+        }
+
+        synchronized (this) {
+            List<Object> key = new ArrayList<>(keyValues.length);
+            for (Object value : keyValues) {
+                key.add(normalize(value));
+            }
+            PendingRow row = pendingRow(table, primaryKeys, key);
+            row.increment(column, delta);
+        }
+        return accepted();
+    }
+
+    private ReturnSet write(String table, Map<String, Object> values, boolean insert) {
+        String[] primaryKeys = db.getPrimaryKeys(table);
+        List<Object> key = new ArrayList<>(primaryKeys.length);
+        for (String pk : primaryKeys) {
+            if (!values.containsKey(pk)) {
+                return error(ReturnSet.ReturnErrors.NO_PRIMARY_KEY, "Buffered write on " + table + " is missing primary key " + pk);
+            }
+            key.add(normalize(values.get(pk)));
+        }
+        if (key.isEmpty()) {
+            return error(ReturnSet.ReturnErrors.NO_PRIMARY_KEY, "Table " + table + " has no primary key");
+        }
+
+        synchronized (this) {
+            PendingRow row = pendingRow(table, primaryKeys, key);
+            row.insert |= insert;
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                if (!row.keys.containsKey(entry.getKey())) {
+                    row.set(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return accepted();
+    }
+
+    /**
+     * Same Key for 1 and 1L
+     * @param value
+     * @return Object
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        }
+        return value;
+    }
+
+    private PendingRow pendingRow(String table, String[] primaryKeys, List<Object> key) {
+        PendingRow row = pending.computeIfAbsent(table, k -> new LinkedHashMap<>()).get(key);
+        if (row == null) {
+            row = new PendingRow(primaryKeys, key);
+            pending.get(table).put(key, row);
+            pendingCount++;
+        }
+        return row;
+    }
+
+    private ReturnSet accepted() {
+        boolean requestFlush;
+        synchronized (this) {
+            requestFlush = pendingCount >= maxPendingRows && !flushRequested;
+            if (requestFlush) {
+                flushRequested = true;
+            }
+        }
+        if (requestFlush) {
+            db.executeAsync(this::flush);
+        }
+        ReturnSet returnSet = new ReturnSet();
+        returnSet.setError(ReturnSet.ReturnErrors.NONE);
+        return returnSet;
+    }
+
+    private ReturnSet error(ReturnSet.ReturnErrors error, String message) {
+        log.severe(message);
+        ReturnSet returnSet = new ReturnSet();
+        returnSet.setError(error);
+        return returnSet;
+    }
+
+    //##################################################################################################################
+    //################################################Flush#############################################################
+    //##################################################################################################################
+
+    /**
+     * Writes all pending Rows in one Transaction on the calling Thread
+     * If the Transaction fails the Rows are retried one by one, Rows that still fail are dropped and logged,
+     * so a single bad Row can't block the Buffer
+     * @return flushed Rows
+     */
+    public int flush() {
+        Map<String, Map<List<Object>, PendingRow>> snapshot;
+        int count;
+        synchronized (this) {
+            snapshot = pending;
+            count = pendingCount;
+            pending = new LinkedHashMap<>();
+            pendingCount = 0;
+            flushRequested = false;
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        try {
+            db.runInTransaction(() -> {
+                for (Map.Entry<String, Map<List<Object>, PendingRow>> table : snapshot.entrySet()) {
+                    for (PendingRow row : table.getValue().values()) {
+                        flushRow(table.getKey(), row);
+                    }
+                }
+            });
+            return count;
+        } catch (SQLException | RuntimeException e) {
+            log.warning("Error flushing write-behind buffer, retrying " + count + " rows one by one: " + e.getMessage());
+        }
+
+        int flushed = 0;
+        for (Map.Entry<String, Map<List<Object>, PendingRow>> table : snapshot.entrySet()) {
+            for (PendingRow row : table.getValue().values()) {
+                try {
+                    flushRow(table.getKey(), row);
+                    flushed++;
+                } catch (SQLException | RuntimeException e) {
+                    log.severe("Dropped buffered write on " + table.getKey() + " " + row.keys + " " + row.values
+                            + " increments " + row.increments + ": " + e.getMessage());
+                }
+            }
+        }
+        return flushed;
+    }
+
+    /**
+     * Count of pending Rows
+     * @return int
+     */
+    public synchronized int size() {
+        return pendingCount;
+    }
+
+    private void flushRow(String table, PendingRow row) throws SQLException {
+        List<Object> params = new ArrayList<>();
+
+        if (row.insert) {
+            StringJoiner columns = new StringJoiner(", ");
+            StringJoiner placeholder = new StringJoiner(", ");
+            StringJoiner assignments = new StringJoiner(", ");
+            for (Map.Entry<String, Object> key : row.keys.entrySet()) {
+                columns.add(key.getKey());
+                placeholder.add("?");
+                params.add(key.getValue());
+            }
+            for (Map.Entry<String, Object> value : row.values.entrySet()) {
+                columns.add(value.getKey());
+                assignments.add(value.getKey() + " = excluded." + value.getKey());
+                params.add(value.getValue());
+                Number delta = row.increments.get(value.getKey());
+                if (delta != null) {
+                    placeholder.add("? + ?");
+                    params.add(delta);
+                } else {
+                    placeholder.add("?");
+                }
+            }
+            //Increments without a Value add to the existing Row
+            for (Map.Entry<String, Number> increment : row.increments.entrySet()) {
+                if (!row.values.containsKey(increment.getKey())) {
+                    columns.add(increment.getKey());
+                    assignments.add(increment.getKey() + " = " + increment.getKey() + " + excluded." + increment.getKey());
+                    placeholder.add("?");
+                    params.add(increment.getValue());
+                }
+            }
+            String conflict = "ON CONFLICT (" + String.join(", ", row.keys.keySet()) + ") "
+                    + (assignments.length() == 0 ? "DO NOTHING" : "DO UPDATE SET " + assignments);
+            db.executeUpdate("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholder + ") " + conflict, params.toArray());
+            db.invalidateCachedRows(table, row.keys);
+            return;
+        }
+
+        StringJoiner assignments = new StringJoiner(", ");
+        for (Map.Entry<String, Object> value : row.values.entrySet()) {
+            params.add(value.getValue());
+            Number delta = row.increments.get(value.getKey());
+            if (delta != null) {
+                assignments.add(value.getKey() + " = ? + ?");
+                params.add(delta);
+            } else {
+                assignments.add(value.getKey() + " = ?");
+            }
+        }
+        for (Map.Entry<String, Number> increment : row.increments.entrySet()) {
+            if (!row.values.containsKey(increment.getKey())) {
+                assignments.add(increment.getKey() + " = " + increment.getKey() + " + ?");
+                params.add(increment.getValue());
+            }
+        }
+
+        StringJoiner where = new StringJoiner(" AND ");
+        for (Map.Entry<String, Object> key : row.keys.entrySet()) {
+            where.add(key.getKey() + " = ?");
+            params.add(key.getValue());
+        }
+        int changed = db.executeUpdate("UPDATE " + table + " SET " + assignments + " WHERE " + where, params.toArray());
+        db.invalidateCachedRows(table, row.keys);
+        //Update without an Insert on a missing Row, the Values would be lost
+        if (changed == 0) {
+            throw new SQLException("Row doesn't exist, buffered update needs a buffered insert first");
+        }
+    }
+
+    /**
+     * Coalesced Writes of one Row
+     */
+    private static class PendingRow {
+        private final Map<String, Object> keys = new LinkedHashMap<>();
+        private final Map<String, Object> values = new LinkedHashMap<>();
+        private final Map<String, Number> increments = new LinkedHashMap<>();
+        private boolean insert = false;
+
+        private PendingRow(String[] primaryKeys, List<Object> keyValues) {
+            for (int i = 0; i < primaryKeys.length; i++) {
+                keys.put(primaryKeys[i], keyValues.get(i));
+            }
+        }
+
+        private void set(String column, Object value) {
+            values.put(column, value);
+            increments.remove(column);
+        }
+
+        private void increment(String column, Number delta) {
+            increments.merge(column, delta, PendingRow::add);
+        }
+
+        private static Number add(Number a, Number b) {
+            if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+                return a.doubleValue() + b.doubleValue();
+            }
+            return a.longValue() + b.longValue();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package de.xlb.minebase.entity;
+
+import de.xlb.minebase.types.TableConfig;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a Field to a Column
+ * Supported Types: long, int, short, byte, double, float, boolean (and their Wrappers), String, byte[], UUID, Enums
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Column {
+    /**
+     * Columnname, the Fieldname if empty
+     * @return String
+     */
+    String value() default "";
+
+    /**
+     * Column Type, derived from the Field Type if NULL
+     * @return TableConfig.ColTypes
+     */
+    TableConfig.ColTypes type() default TableConfig.ColTypes.NULL;
+
+    /**
+     * Old Columnname, MineDb.createTable(Class) renames the Column and keeps its Data
+     * @return String
+     */
+    String renamedFrom() default "";
+}
@@ -0,0 +1,425 @@
+package de.xlb.minebase.entity;
+
+import de.xlb.minebase.types.InsertRow;
+import de.xlb.minebase.types.ReturnSet;
+import de.xlb.minebase.types.TableConfig;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps an @Table Class to Rows and back
+ * The Fields are resolved once per Class into MethodHandles, cached in a ClassValue. Primitive Fields are read and
+ * written with exact Handles, so mapping a Row doesn't box or reflect
+ * @param <T> Entity Class
+ */
+public final class EntityCodec<T> {
+    private static final ClassValue<EntityCodec<?>> CODECS = new ClassValue<>() {
+        @Override
+        protected EntityCodec<?> computeValue(Class<?> type) {
+            return new EntityCodec<>(type);
+        }
+    };
+
+    //Vars
+    private final Class<T> type;
+    private final String tableName;
+    private final Property[] properties;
+    private final Property[] ids;
+    private final String[] columns;
+    private final String[] idColumns;
+    private final MethodHandle constructor;
+    private final TableConfig tableConfig;
+
+    /**
+     * Codec of an Entity Class, created on first Use
+     * @param type
+     * @return EntityCodec
+     * @throws IllegalArgumentException if the Class isn't a valid Entity
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityCodec<T> of(Class<T> type) {
+        return (EntityCodec<T>) CODECS.get(type);
+    }
+
+    private EntityCodec(Class<T> type) {
+        Table table = type.getAnnotation(Table.class);
+        if (table == null) {
+            throw new IllegalArgumentException(type.getName() + " is not annotated with @Table");
+        }
+        this.type = type;
+        this.tableName = table.value();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + " needs an accessible no-arg constructor", e);
+        }
+
+        //Fields of Superclasses first
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        List<Property> propertyList = new ArrayList<>();
+        List<Property> idList = new ArrayList<>();
+        for (Class<?> declaring : hierarchy) {
+            for (Field field : declaring.getDeclaredFields()) {
+                Column column = field.getAnnotation(Column.class);
+                boolean id = field.isAnnotationPresent(Id.class);
+                if (column == null && !id) {
+                    continue;
+                }
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                    throw new IllegalArgumentException("Column field must not be static or final: " + field);
+                }
+                Property property = new Property(field, column);
+                propertyList.add(property);
+                if (id) {
+                    idList.add(property);
+                }
+            }
+        }
+        if (propertyList.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " has no @Column or @Id fields");
+        }
+        this.properties = propertyList.toArray(new Property[0]);
+        this.ids = idList.toArray(new Property[0]);
+
+        this.columns = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            columns[i] = properties[i].column;
+        }
+        this.idColumns = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            idColumns[i] = ids[i].column;
+        }
+
+        this.tableConfig = new TableConfig(tableName);
+        for (Property property : properties) {
+            tableConfig.addColumn(property.column, property.colType, property.renamedFrom);
+        }
+        if (idColumns.length > 0) {
+            tableConfig.setPrimary(idColumns);
+        }
+    }
+
+    /**
+     * Gets the Tablename
+     * @return String
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Table derived from the Fields, @Id Fields are the Primary Keys
+     * @return TableConfig
+     */
+    public TableConfig getTableConfig() {
+        return tableConfig;
+    }
+
+    /**
+     * Columnnames in Field Order
+     * @return String[]
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Columnnames of the @Id Fields
+     * @return String[], empty without @Id
+     */
+    public String[] getIdColumns() {
+        return idColumns.clone();
+    }
+
+    /**
+     * All Columns of an Entity as Insert Row
+     * @param entity
+     * @return InsertRow
+     */
+    public InsertRow toInsertRow(T entity) {
+        InsertRow row = new InsertRow();
+        try {
+            for (Property property : properties) {
+                property.write(entity, row);
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error reading fields of " + type.getName(), e);
+        }
+        return row;
+    }
+
+    /**
+     * Primary Key Values of an Entity as stored in the Database
+     * @param entity
+     * @return Object[] in Order of getIdColumns()
+     */
+    public Object[] getId(T entity) {
+        Object[] values = new Object[ids.length];
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                values[i] = ids[i].toDatabase(ids[i].get(entity));
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error reading id of " + type.getName(), e);
+        }
+        return values;
+    }
+
+    /**
+     * Converts Primary Key Values (UUID, Enum, ...) to their stored Form
+     * @param id Values in Order of getIdColumns()
+     * @return Object[]
+     */
+    public Object[] toKey(Object... id) {
+        Object[] key = new Object[id.length];
+        for (int i = 0; i < id.length; i++) {
+            key[i] = i < ids.length ? ids[i].toDatabase(id[i]) : id[i];
+        }
+        return key;
+    }
+
+    /**
+     * Creates an Entity from a selected Row, Columns missing in the Result keep their Default
+     * @param returnSet
+     * @param row
+     * @return T
+     */
+    public T read(ReturnSet returnSet, int row) {
+        return read(returnSet, row, columnIndexes(returnSet));
+    }
+
+    /**
+     * Creates Entities from all selected Rows
+     * @param returnSet
+     * @return List<T>
+     */
+    public List<T> readAll(ReturnSet returnSet) {
+        int[] indexes = columnIndexes(returnSet);
+        List<T> entities = new ArrayList<>(returnSet.resultSize());
+        for (int row = 0; row < returnSet.resultSize(); row++) {
+            entities.add(read(returnSet, row, indexes));
+        }
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T read(ReturnSet returnSet, int row, int[] indexes) {
+        try {
+            Object entity = constructor.invokeExact();
+            for (int i = 0; i < properties.length; i++) {
+                if (indexes[i] >= 0) {
+                    properties[i].read(entity, returnSet, row, indexes[i]);
+                }
+            }
+            return (T) entity;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error creating " + type.getName(), e);
+        }
+    }
+
+    private int[] columnIndexes(ReturnSet returnSet) {
+        int[] indexes = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            indexes[i] = returnSet.getColumnIndex(properties[i].column);
+        }
+        return indexes;
+    }
+
+    /**
+     * Java Types a Field can have
+     */
+    private enum Kind {
+        LONG, INT, SHORT, BYTE, DOUBLE, FLOAT, BOOLEAN, STRING, BYTES, UUID, ENUM
+    }
+
+    /**
+     * One mapped Field
+     * Primitive Fields use Handles of Type (Object)prim and (Object, prim)void, all others (Object)Object
+     */
+    private static final class Property {
+        private final String column;
+        private final String renamedFrom;
+        private final TableConfig.ColTypes colType;
+        private final Kind kind;
+        private final boolean primitive;
+        private final Class<?> fieldType;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private Property(Field field, Column annotation) {
+            this.column = annotation != null && !annotation.value().isEmpty() ? annotation.value() : field.getName();
+            this.renamedFrom = annotation != null && !annotation.renamedFrom().isEmpty() ? annotation.renamedFrom() : null;
+            this.fieldType = field.getType();
+            this.primitive = fieldType.isPrimitive();
+            this.kind = kindOf(field);
+            this.colType = annotation != null && annotation.type() != TableConfig.ColTypes.NULL
+                    ? annotation.type() : colTypeOf(kind);
+
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+                Class<?> handleType = primitive ? fieldType : Object.class;
+                this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(handleType, Object.class));
+                this.setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, handleType));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Field is not accessible: " + field, e);
+            }
+        }
+
+        private static Kind kindOf(Field field) {
+            Class<?> type = field.getType();
+            if (type == long.class || type == Long.class) return Kind.LONG;
+            if (type == int.class || type == Integer.class) return Kind.INT;
+            if (type == short.class || type == Short.class) return Kind.SHORT;
+            if (type == byte.class || type == Byte.class) return Kind.BYTE;
+            if (type == double.class || type == Double.class) return Kind.DOUBLE;
+            if (type == float.class || type == Float.class) return Kind.FLOAT;
+            if (type == boolean.class || type == Boolean.class) return Kind.BOOLEAN;
+            if (type == String.class) return Kind.STRING;
+            if (type == byte[].class) return Kind.BYTES;
+            if (type == UUID.class) return Kind.UUID;
+            if (type.isEnum()) return Kind.ENUM;
+            throw new IllegalArgumentException("Unsupported column type " + type.getName() + " of " + field);
+        }
+
+        private static TableConfig.ColTypes colTypeOf(Kind kind) {
+            switch (kind) {
+                case LONG:
+                case INT:
+                case SHORT:
+                case BYTE:
+                case BOOLEAN:
+                    return TableConfig.ColTypes.INTEGER;
+                case DOUBLE:
+                case FLOAT:
+                    return TableConfig.ColTypes.REAL;
+                case BYTES:
+                    return TableConfig.ColTypes.BLOB;
+                default:
+                    return TableConfig.ColTypes.TEXT;
+            }
+        }
+
+        /**
+         * Field Value, boxed for primitive Fields
+         * @param entity
+         * @return Object
+         * @throws Throwable
+         */
+        private Object get(Object entity) throws Throwable {
+            if (!primitive) {
+                return (Object) getter.invokeExact(entity);
+            }
+            switch (kind) {
+                case LONG: return (long) getter.invokeExact(entity);
+                case INT: return (int) getter.invokeExact(entity);
+                case SHORT: return (short) getter.invokeExact(entity);
+                case BYTE: return (byte) getter.invokeExact(entity);
+                case DOUBLE: return (double) getter.invokeExact(entity);
+                case FLOAT: return (float) getter.invokeExact(entity);
+                default: return (boolean) getter.invokeExact(entity);
+            }
+        }
+
+        /**
+         * Puts the Field Value into an Insert Row
+         * @param entity
+         * @param row
+         * @throws Throwable
+         */
+        private void write(Object entity, InsertRow row) throws Throwable {
+            if (primitive) {
+                switch (kind) {
+                    case LONG: row.put(column, (long) getter.invokeExact(entity)); return;
+                    case INT: row.put(column, (int) getter.invokeExact(entity)); return;
+                    case SHORT: row.put(column, (short) getter.invokeExact(entity)); return;
+                    case BYTE: row.put(column, (byte) getter.invokeExact(entity)); return;
+                    case DOUBLE: row.put(column, (double) getter.invokeExact(entity)); return;
+                    case FLOAT: row.put(column, (float) getter.invokeExact(entity)); return;
+                    default: row.put(column, (boolean) getter.invokeExact(entity)); return;
+                }
+            }
+            Object value = toDatabase((Object) getter.invokeExact(entity));
+            if (value == null) {
+                row.putNull(column);
+            } else if (value instanceof Boolean) {
+                row.put(column, (boolean) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                row.put(column, ((Number) value).doubleValue());
+            } else if (value instanceof Number) {
+                row.put(column, ((Number) value).longValue());
+            } else if (value instanceof byte[]) {
+                row.putBytes(column, (byte[]) value);
+            } else {
+                row.put(column, (String) value);
+            }
+        }
+
+        /**
+         * Sets the Field from a selected Cell
+         * @param entity
+         * @param returnSet
+         * @param row
+         * @param index Column Index in the ReturnSet
+         * @throws Throwable
+         */
+        private void read(Object entity, ReturnSet returnSet, int row, int index) throws Throwable {
+            if (primitive) {
+                switch (kind) {
+                    case LONG: setter.invokeExact(entity, returnSet.getLong(row, index)); return;
+                    case INT: setter.invokeExact(entity, returnSet.getInt(row, index)); return;
+                    case SHORT: setter.invokeExact(entity, (short) returnSet.getLong(row, index)); return;
+                    case BYTE: setter.invokeExact(entity, (byte) returnSet.getLong(row, index)); return;
+                    case DOUBLE: setter.invokeExact(entity, returnSet.getDouble(row, index)); return;
+                    case FLOAT: setter.invokeExact(entity, (float) returnSet.getDouble(row, index)); return;
+                    default: setter.invokeExact(entity, returnSet.getBoolean(row, index)); return;
+                }
+            }
+            setter.invokeExact(entity, returnSet.isNull(row, index) ? null : fromDatabase(returnSet, row, index));
+        }
+
+        /**
+         * Converts a Field Value to its stored Form
+         * @param value
+         * @return Object
+         */
+        private Object toDatabase(Object value) {
+            if (value instanceof UUID) {
+                return value.toString();
+            }
+            if (value instanceof Enum) {
+                return ((Enum<?>) value).name();
+            }
+            return value;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object fromDatabase(ReturnSet returnSet, int row, int index) {
+            switch (kind) {
+                case LONG: return returnSet.getLong(row, index);
+                case INT: return returnSet.getInt(row, index);
+                case SHORT: return (short) returnSet.getLong(row, index);
+                case BYTE: return (byte) returnSet.getLong(row, index);
+                case DOUBLE: return returnSet.getDouble(row, index);
+                case FLOAT: return (float) returnSet.getDouble(row, index);
+                case BOOLEAN: return returnSet.getBoolean(row, index);
+                case BYTES: return returnSet.getBytes(row, index);
+                case UUID: return UUID.fromString(returnSet.getString(row, index));
+                case ENUM: return Enum.valueOf((Class) fieldType, returnSet.getString(row, index));
+                default: return returnSet.getString(row, index);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package de.xlb.minebase.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Field as Primary Key, several @Id Fields form a composite Key in Declaration Order
+ * Can be combined with @Column to rename the Column
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Id {
+}
@@ -0,0 +1,20 @@
+package de.xlb.minebase.entity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Class as Entity stored in a Table
+ * Fields annotated with @Column or @Id are the Columns, the Class needs a no-arg Constructor
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Table {
+    /**
+     * Tablename
+     * @return String
+     */
+    String value();
+}
@@ -0,0 +1,319 @@
+package de.xlb.minebase.session;
+
+import de.xlb.minebase.api.MineDb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Rows of one Player in all registered Tables, loaded on Pre-Login and kept in Memory until Quit
+ * Tables are addressed by Name, or by Database and Name if the Name is registered for several Databases
+ * All Access is synchronized on the Session, so the Main Thread and the Autosave can share it
+ */
+public class PlayerSession {
+    //Vars
+    private final UUID playerId;
+    private final Collection<SessionTable> tables;
+    private final Map<SessionTable, List<SessionRow>> rows = new LinkedHashMap<>();
+    private final Map<SessionTable, List<Map<String, Object>>> removed = new LinkedHashMap<>();
+    private final Map<SessionTable, Integer> failedFlushes = new LinkedHashMap<>();
+    private int connections = 0;
+
+    /**
+     * @param playerId
+     * @param tables   registered Tables
+     */
+    PlayerSession(UUID playerId, Collection<SessionTable> tables) {
+        this.playerId = playerId;
+        this.tables = tables;
+    }
+
+    /**
+     * UUID of the Player
+     * @return UUID
+     */
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * The Row of a Table with one Row per Player, created if the Player has none yet
+     * @param table
+     * @return SessionRow
+     */
+    public synchronized SessionRow getRow(String table) {
+        return getRow(table(table));
+    }
+
+    public synchronized SessionRow getRow(MineDb db, String table) {
+        return getRow(table(db, table));
+    }
+
+    private SessionRow getRow(SessionTable conf) {
+        List<SessionRow> tableRows = tableRows(conf);
+        return tableRows.isEmpty() ? newRow(conf) : tableRows.get(0);
+    }
+
+    /**
+     * Row by its Key Values (without the Player Column if it isn't a Key Column)
+     * @param table
+     * @param keyValues in Order of the registered Key Columns
+     * @return SessionRow, null if the Player has no such Row
+     */
+    public synchronized SessionRow getRow(String table, Object... keyValues) {
+        return getRow(table(table), keyValues);
+    }
+
+    public synchronized SessionRow getRow(MineDb db, String table, Object... keyValues) {
+        return getRow(table(db, table), keyValues);
+    }
+
+    private SessionRow getRow(SessionTable conf, Object[] keyValues) {
+        List<String> keys = new ArrayList<>(List.of(conf.keyColumns));
+        if (keyValues.length < keys.size()) {
+            keys.remove(conf.playerColumn);
+        }
+        for (SessionRow row : tableRows(conf)) {
+            boolean match = true;
+            for (int i = 0; i < keys.size() && match; i++) {
+                match = i < keyValues.length
+                        && Objects.equals(String.valueOf(row.valueUnlocked(keys.get(i))), String.valueOf(keyValues[i]));
+            }
+            if (match) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All Rows of the Player in a Table
+     * @param table
+     * @return List<SessionRow>
+     */
+    public synchronized List<SessionRow> getRows(String table) {
+        return Collections.unmodifiableList(new ArrayList<>(tableRows(table(table))));
+    }
+
+    public synchronized List<SessionRow> getRows(MineDb db, String table) {
+        return Collections.unmodifiableList(new ArrayList<>(tableRows(table(db, table))));
+    }
+
+    /**
+     * New Row with the Player Column set, inserted on the next Flush
+     * @param table
+     * @return SessionRow
+     */
+    public synchronized SessionRow newRow(String table) {
+        return newRow(table(table));
+    }
+
+    public synchronized SessionRow newRow(MineDb db, String table) {
+        return newRow(table(db, table));
+    }
+
+    private SessionRow newRow(SessionTable conf) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(conf.playerColumn, playerId.toString());
+        SessionRow row = new SessionRow(this, values, false);
+        tableRows(conf).add(row);
+        return row;
+    }
+
+    /**
+     * Removes a Row, deleted on the next Flush
+     * @param table
+     * @param row
+     * @return boolean, false if the Row isn't part of the Session
+     */
+    public synchronized boolean removeRow(String table, SessionRow row) {
+        return removeRow(table(table), row);
+    }
+
+    public synchronized boolean removeRow(MineDb db, String table, SessionRow row) {
+        return removeRow(table(db, table), row);
+    }
+
+    private boolean removeRow(SessionTable conf, SessionRow row) {
+        if (!tableRows(conf).remove(row)) {
+            return false;
+        }
+        if (row.isStored()) {
+            Map<String, Object> key = new LinkedHashMap<>();
+            for (String column : conf.keyColumns) {
+                key.put(column, row.valueUnlocked(column));
+            }
+            removed.computeIfAbsent(conf, k -> new ArrayList<>()).add(key);
+        }
+        return true;
+    }
+
+    /**
+     * Has unsaved Changes
+     * @return boolean
+     */
+    public synchronized boolean isDirty() {
+        for (List<Map<String, Object>> keys : removed.values()) {
+            if (!keys.isEmpty()) {
+                return true;
+            }
+        }
+        for (List<SessionRow> tableRows : rows.values()) {
+            for (SessionRow row : tableRows) {
+                if (row.isDirty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    //##################################################################################################################
+    //################################################Flush#############################################################
+    //##################################################################################################################
+
+    /**
+     * Adds a loaded Row
+     * @param table
+     * @param values
+     */
+    synchronized void addLoadedRow(SessionTable table, Map<String, Object> values) {
+        tableRows(table).add(new SessionRow(this, values, true));
+    }
+
+    /**
+     * Drops the Rows of unregistered Tables
+     * @param dropped
+     */
+    synchronized void dropTables(Collection<SessionTable> dropped) {
+        for (SessionTable conf : dropped) {
+            rows.remove(conf);
+            removed.remove(conf);
+            failedFlushes.remove(conf);
+        }
+    }
+
+    /**
+     * Takes all Changes of the given Tables, the dirty Flags are cleared
+     * @param flushTables
+     * @return List<Change>
+     */
+    synchronized List<Change> drainChanges(List<SessionTable> flushTables) {
+        List<Change> changes = new ArrayList<>();
+        for (SessionTable conf : flushTables) {
+            List<Map<String, Object>> removedKeys = removed.remove(conf);
+            if (removedKeys != null) {
+                for (Map<String, Object> key : removedKeys) {
+                    changes.add(new Change(conf, null, key));
+                }
+            }
+            for (SessionRow row : rows.getOrDefault(conf, Collections.emptyList())) {
+                Map<String, Object> values = row.drainChanges(conf.keyColumns);
+                if (values != null) {
+                    changes.add(new Change(conf, row, values));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Marks the Changes of a successful Flush as stored
+     * @param changes
+     */
+    synchronized void commitChanges(List<Change> changes) {
+        for (Change change : changes) {
+            if (change.row != null) {
+                change.row.setStored(true);
+            }
+        }
+    }
+
+    /**
+     * Puts the Changes of a failed Flush back, they are retried on the next Flush
+     * @param changes
+     */
+    synchronized void restoreChanges(List<Change> changes) {
+        for (Change change : changes) {
+            if (change.row == null) {
+                removed.computeIfAbsent(change.table, k -> new ArrayList<>()).add(change.values);
+            } else {
+                change.row.restoreChanges(change.values.keySet());
+            }
+        }
+    }
+
+    /**
+     * Counts the Flush Result of a Table, a Flush without failed Changes resets the Count
+     * @param table
+     * @param failed
+     * @return int, failed Flushes of the Table in a Row
+     */
+    synchronized int countFlush(SessionTable table, boolean failed) {
+        if (!failed) {
+            failedFlushes.remove(table);
+            return 0;
+        }
+        return failedFlushes.merge(table, 1, Integer::sum);
+    }
+
+    /**
+     * Connections of the Player using this Session, a second Login shares the Session of the first one
+     * @param delta +1 on Login, -1 on Quit or a denied Login
+     * @return int, remaining Connections
+     */
+    synchronized int connect(int delta) {
+        connections += delta;
+        return connections;
+    }
+
+    private List<SessionRow> tableRows(SessionTable conf) {
+        return rows.computeIfAbsent(conf, k -> new ArrayList<>());
+    }
+
+    private SessionTable table(String table) {
+        SessionTable found = null;
+        for (SessionTable conf : tables) {
+            if (conf.table.equals(table)) {
+                if (found != null) {
+                    throw new IllegalArgumentException("Table " + table + " is registered for several databases, pass the database");
+                }
+                found = conf;
+            }
+        }
+        if (found == null) {
+            throw new IllegalArgumentException("Table is not registered for sessions: " + table);
+        }
+        return found;
+    }
+
+    private SessionTable table(MineDb db, String table) {
+        for (SessionTable conf : tables) {
+            if (conf.db == db && conf.table.equals(table)) {
+                return conf;
+            }
+        }
+        throw new IllegalArgumentException("Table is not registered for sessions: " + db.getDbName() + "/" + table);
+    }
+
+    /**
+     * Upsert of changed Columns, or Delete by Key if row is null
+     */
+    static final class Change {
+        final SessionTable table;
+        final SessionRow row;
+        final Map<String, Object> values;
+
+        private Change(SessionTable table, SessionRow row, Map<String, Object> values) {
+            this.table = table;
+            this.row = row;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package de.xlb.minebase.session;
+
+import de.xlb.minebase.api.MineDb;
+import de.xlb.minebase.api.Transaction;
+import de.xlb.minebase.types.Condition;
+import de.xlb.minebase.types.InsertRow;
+import de.xlb.minebase.types.ReturnSet;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * Player Data Sessions
+ * Rows of the registered Tables are loaded on AsyncPlayerPreLoginEvent (off the Main Thread), served from Memory
+ * while the Player is online and flushed on PlayerQuitEvent and by the Autosave, one Transaction per Player and Database.
+ * If a Transaction fails its Changes are retried one by one, Changes that still fail are kept for MAX_FLUSH_ATTEMPTS
+ * Flushes and then dropped and logged. Flushes run on the Session Thread, so no Player I/O happens on the Main Thread
+ */
+public final class PlayerSessionManager implements Listener {
+    public static final long DEFAULT_AUTOSAVE_MILLIS = 5 * 60 * 1000;
+    public static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final long SAVE_WAIT_SECONDS = 10;
+
+    //Vars
+    private final Logger log;
+    private final List<SessionTable> tables = new CopyOnWriteArrayList<>();
+    private final Map<UUID, PlayerSession> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<Void>> pendingSaves = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sessionThread;
+    private ScheduledFuture<?> autosaveTask;
+
+    /**
+     * Creates the Manager, register it as Listener
+     * @param log
+     * @param autosaveMillis Interval of the Autosave, 0 = only on Quit
+     */
+    public PlayerSessionManager(Logger log, long autosaveMillis) {
+        this.log = log;
+        this.sessionThread = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Minebase-Sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setAutosaveInterval(autosaveMillis);
+    }
+
+    /**
+     * Changes the Autosave Interval
+     * @param autosaveMillis 0 = only on Quit
+     */
+    public synchronized void setAutosaveInterval(long autosaveMillis) {
+        if (autosaveTask != null) {
+            autosaveTask.cancel(false);
+            autosaveTask = null;
+        }
+        if (autosaveMillis > 0) {
+            autosaveTask = sessionThread.scheduleWithFixedDelay(this::flushAll,
+                    autosaveMillis, autosaveMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Registers a Table for Sessions, Rows with the Player's UUID in playerColumn are loaded on Join
+     * Register before Players join, Sessions loaded earlier don't contain the Table.
+     * The same Tablename in another Database is a separate Table, address it with the Database in PlayerSession
+     * @param db
+     * @param table
+     * @param playerColumn Column with the Player UUID as TEXT
+     * @param keyColumns   Primary Key or Unique Columns used to write Rows back, the playerColumn if empty
+     */
+    public synchronized void register(MineDb db, String table, String playerColumn, String... keyColumns) {
+        tables.removeIf(conf -> conf.db == db && conf.table.equals(table));
+        tables.add(new SessionTable(db, table, playerColumn, keyColumns));
+    }
+
+    /**
+     * Flushes and removes all Tables of a Database, call before closing the Database
+     * @param db
+     */
+    public synchronized void unregister(MineDb db) {
+        List<SessionTable> dbTables = new ArrayList<>();
+        for (SessionTable conf : tables) {
+            if (conf.db == db) {
+                dbTables.add(conf);
+            }
+        }
+        waitFor(CompletableFuture.runAsync(() -> {
+            for (PlayerSession session : sessions.values()) {
+                flush(db, dbTables, session);
+            }
+        }, sessionThread));
+        tables.removeAll(dbTables);
+        for (PlayerSession session : sessions.values()) {
+            session.dropTables(dbTables);
+        }
+    }
+
+    /**
+     * Session of an online Player
+     * @param playerId
+     * @return PlayerSession, null if not loaded
+     */
+    public PlayerSession getSession(UUID playerId) {
+        return sessions.get(playerId);
+    }
+
+    /**
+     * Loads the Session of a Player, blocks until loaded. Used on Pre-Login, call it for Players that are already
+     * online when Tables are registered late (e.g. after /reload)
+     * @param playerId
+     * @return PlayerSession, null if a Table couldn't be read
+     */
+    public PlayerSession load(UUID playerId) {
+        //A Save of the last Quit must finish first, otherwise old Rows are loaded
+        CompletableFuture<Void> pendingSave = pendingSaves.get(playerId);
+        if (pendingSave != null) {
+            waitFor(pendingSave);
+        }
+        PlayerSession existing = sessions.get(playerId);
+        if (existing != null) {
+            return existing;
+        }
+
+        PlayerSession session = new PlayerSession(playerId, tables);
+        for (SessionTable conf : tables) {
+            ReturnSet returnSet = conf.db.selectWhere(conf.table, null, Condition.eq(conf.playerColumn, playerId.toString()), null);
+            if (returnSet.getError() != ReturnSet.ReturnErrors.NONE) {
+                log.severe("Could not load session table " + conf.table + " of " + playerId);
+                return null;
+            }
+            String[] columns = returnSet.getColumnNames();
+            for (int row = 0; row < returnSet.resultSize(); row++) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (int i = 0; i < columns.length; i++) {
+                    values.put(columns[i], returnSet.getValue(row, i));
+                }
+                session.addLoadedRow(conf, values);
+            }
+        }
+        PlayerSession raced = sessions.putIfAbsent(playerId, session);
+        return raced != null ? raced : session;
+    }
+
+    /**
+     * Saves a Session on the Session Thread
+     * @param playerId
+     * @return CompletableFuture<Void>
+     */
+    public CompletableFuture<Void> save(UUID playerId) {
+        PlayerSession session = sessions.get(playerId);
+        if (session == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> flush(List.of(session)), sessionThread);
+    }
+
+    /**
+     * Saves all Sessions on the Session Thread
+     * @return CompletableFuture<Void>
+     */
+    public CompletableFuture<Void> saveAll() {
+        return CompletableFuture.runAsync(this::flushAll, sessionThread);
+    }
+
+    /**
+     * Stops the Autosave and flushes all Sessions, call on Disable
+     */
+    public void close() {
+        setAutosaveInterval(0);
+        waitFor(saveAll());
+        sessionThread.shutdown();
+        try {
+            if (!sessionThread.awaitTermination(SAVE_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warning("Session saves did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //##################################################################################################################
+    //################################################Events############################################################
+    //##################################################################################################################
+
+    /**
+     * Loads the Session, the Login is denied if the Data can't be read, so no empty Session overwrites it
+     * @param event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || tables.isEmpty()) {
+            return;
+        }
+        if (load(event.getUniqueId()) == null) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, "Your data could not be loaded, please try again");
+        }
+    }
+
+    /**
+     * Counts the Connection of an allowed Login, drops the Session if a later Listener denied the Login
+     * @param event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLoginResult(AsyncPlayerPreLoginEvent event) {
+        UUID playerId = event.getUniqueId();
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            PlayerSession session = sessions.get(playerId);
+            if (session != null) {
+                removeIfUnused(session);
+            }
+            return;
+        }
+        while (true) {
+            PlayerSession session = sessions.get(playerId);
+            //A Quit Save of an older Connection removed the Session after onPreLogin
+            if (session == null) {
+                if (tables.isEmpty() || (session = load(playerId)) == null) {
+                    return;
+                }
+            }
+            synchronized (session) {
+                if (sessions.get(playerId) == session) {
+                    session.connect(1);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the Session if the Login is denied after Pre-Login (Ban, Whitelist, full Server)
+     * Another Connection of the Player keeps the Session
+     * @param event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        PlayerSession session = sessions.get(event.getPlayer().getUniqueId());
+        if (session != null) {
+            session.connect(-1);
+            removeIfUnused(session);
+        }
+    }
+
+    /**
+     * Flushes the Session on the Session Thread and removes it, unless another Connection of the Player
+     * (a Login that kicked this one) still uses it or Changes are kept for a Retry by the Autosave
+     * @param event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        PlayerSession session = sessions.get(playerId);
+        if (session == null) {
+            return;
+        }
+        session.connect(-1);
+        CompletableFuture<Void> save = CompletableFuture.runAsync(() -> {
+            flush(List.of(session));
+            removeIfUnused(session);
+        }, sessionThread);
+        pendingSaves.put(playerId, save);
+        save.whenComplete((result, e) -> pendingSaves.remove(playerId, save));
+    }
+
+    /**
+     * Removes a Session without Connections and unsaved Changes
+     * @param session
+     */
+    private void removeIfUnused(PlayerSession session) {
+        synchronized (session) {
+            if (session.connect(0) <= 0 && !session.isDirty()) {
+                sessions.remove(session.getPlayerId(), session);
+            }
+        }
+    }
+
+    //##################################################################################################################
+    //################################################Flush#############################################################
+    //##################################################################################################################
+
+    private void flushAll() {
+        List<PlayerSession> flushSessions = new ArrayList<>(sessions.values());
+        flush(flushSessions);
+        //Sessions of Players that quit while their Save failed
+        flushSessions.forEach(this::removeIfUnused);
+    }
+
+    /**
+     * Writes the Changes of the Sessions, one Transaction per Session and Database
+     * @param flushSessions
+     */
+    private void flush(Collection<PlayerSession> flushSessions) {
+        Map<MineDb, List<SessionTable>> tablesByDb = new LinkedHashMap<>();
+        for (SessionTable conf : tables) {
+            tablesByDb.computeIfAbsent(conf.db, k -> new ArrayList<>()).add(conf);
+        }
+        for (PlayerSession session : flushSessions) {
+            for (Map.Entry<MineDb, List<SessionTable>> entry : tablesByDb.entrySet()) {
+                flush(entry.getKey(), entry.getValue(), session);
+            }
+        }
+    }
+
+    /**
+     * Writes the Changes of one Session to one Database
+     * A failing Change doesn't block the others: after a failed Transaction every Change is written on its own
+     * @param db
+     * @param dbTables
+     * @param session
+     */
+    private void flush(MineDb db, List<SessionTable> dbTables, PlayerSession session) {
+        List<PlayerSession.Change> changes = session.drainChanges(dbTables);
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<PlayerSession.Change> written = new ArrayList<>();
+        Map<SessionTable, List<PlayerSession.Change>> failed = new LinkedHashMap<>();
+        if (db.transaction(tx -> changes.forEach(change -> write(tx, change))).getError() == ReturnSet.ReturnErrors.NONE) {
+            written.addAll(changes);
+        } else {
+            //Find the failing Changes, the others are written
+            for (PlayerSession.Change change : changes) {
+                if (db.transaction(tx -> write(tx, change)).getError() == ReturnSet.ReturnErrors.NONE) {
+                    written.add(change);
+                } else {
+                    failed.computeIfAbsent(change.table, k -> new ArrayList<>()).add(change);
+                }
+            }
+        }
+        session.commitChanges(written);
+
+        for (SessionTable conf : dbTables) {
+            List<PlayerSession.Change> tableFailed = failed.get(conf);
+            int failures = session.countFlush(conf, tableFailed != null);
+            if (failures == 0) {
+                continue;
+            }
+            if (failures < MAX_FLUSH_ATTEMPTS) {
+                session.restoreChanges(tableFailed);
+                log.severe(tableFailed.size() + " changes of session " + session.getPlayerId() + " in " + db.getDbName()
+                        + "/" + conf.table + " could not be saved, retrying with the next flush");
+                continue;
+            }
+            session.countFlush(conf, false);
+            for (PlayerSession.Change change : tableFailed) {
+                log.severe("Dropped session change of " + session.getPlayerId() + " in " + db.getDbName() + "/"
+                        + conf.table + (change.row == null ? " (delete) " : " ") + change.values);
+            }
+        }
+    }
+
+    private static void write(Transaction tx, PlayerSession.Change change) {
+        if (change.row == null) {
+            Condition condition = null;
+            for (Map.Entry<String, Object> key : change.values.entrySet()) {
+                Condition eq = Condition.eq(key.getKey(), key.getValue());
+                condition = condition == null ? eq : condition.and(eq);
+            }
+            tx.deleteWhere(change.table.table, condition);
+        } else {
+            tx.upsert(change.table.table, toInsertRow(change.values), change.table.keyColumns);
+        }
+    }
+
+    private static InsertRow toInsertRow(Map<String, Object> values) {
+        InsertRow row = new InsertRow();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                row.putNull(entry.getKey());
+            } else if (value instanceof Boolean) {
+                row.put(entry.getKey(), (boolean) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                row.put(entry.getKey(), ((Number) value).doubleValue());
+            } else if (value instanceof Number) {
+                row.put(entry.getKey(), ((Number) value).longValue());
+            } else if (value instanceof byte[]) {
+                row.putBytes(entry.getKey(), (byte[]) value);
+            } else {
+                row.put(entry.getKey(), value.toString());
+            }
+        }
+        return row;
+    }
+
+    private void waitFor(CompletableFuture<Void> future) {
+        try {
+            future.get(SAVE_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warning("Session save did not finish in time");
+        } catch (ExecutionException e) {
+            log.severe("Session save failed: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package de.xlb.minebase.session;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One Row of a Player Session, Reads and Writes only touch Memory
+ * Changed Columns are tracked and written on the next Flush
+ * Key Columns should not be changed, remove the Row and create a new one instead
+ */
+public class SessionRow {
+    //Vars
+    private final Object lock;
+    private final Map<String, Object> values;
+    private final Set<String> dirty = new HashSet<>();
+    private boolean stored;
+
+    /**
+     * @param lock   Lock of the Session
+     * @param values
+     * @param stored Row exists in the Database
+     */
+    SessionRow(Object lock, Map<String, Object> values, boolean stored) {
+        this.lock = lock;
+        this.values = new LinkedHashMap<>(values);
+        this.stored = stored;
+        if (!stored) {
+            dirty.addAll(values.keySet());
+        }
+    }
+
+    /**
+     * Value of a Column
+     * @param column
+     * @return Long, Double, String, byte[] or null
+     */
+    public Object get(String column) {
+        synchronized (lock) {
+            return values.get(column);
+        }
+    }
+
+    public String getString(String column) {
+        Object value = get(column);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Value as long, null is 0
+     * @param column
+     * @return long
+     */
+    public long getLong(String column) {
+        Object value = get(column);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return value != null ? Long.parseLong(value.toString().trim()) : 0;
+    }
+
+    public int getInt(String column) {
+        return (int) getLong(column);
+    }
+
+    /**
+     * Value as double, null is 0
+     * @param column
+     * @return double
+     */
+    public double getDouble(String column) {
+        Object value = get(column);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value != null ? Double.parseDouble(value.toString().trim()) : 0;
+    }
+
+    public boolean getBoolean(String column) {
+        Object value = get(column);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return getLong(column) != 0;
+    }
+
+    /**
+     * Set a Column, written on the next Flush
+     * @param column
+     * @param value String, Number, Boolean, byte[] or null
+     */
+    public void set(String column, Object value) {
+        synchronized (lock) {
+            values.put(column, value);
+            dirty.add(column);
+        }
+    }
+
+    /**
+     * Add to a numeric Column
+     * @param column
+     * @param delta
+     * @return long, new Value
+     */
+    public long add(String column, long delta) {
+        synchronized (lock) {
+            long value = getLong(column) + delta;
+            set(column, value);
+            return value;
+        }
+    }
+
+    /**
+     * Has unsaved Changes
+     * @return boolean
+     */
+    public boolean isDirty() {
+        synchronized (lock) {
+            return !dirty.isEmpty();
+        }
+    }
+
+    /**
+     * Copy of all Values
+     * @return Map<Column, Value>
+     */
+    public Map<String, Object> getValues() {
+        synchronized (lock) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        }
+    }
+
+    //##################################################################################################################
+    //################################################Flush#############################################################
+    //##################################################################################################################
+
+    /**
+     * Changed Columns with the Key Columns, clears the dirty Columns. Call under the Session Lock
+     * @param keyColumns
+     * @return Map<Column, Value>, null if nothing changed
+     */
+    Map<String, Object> drainChanges(String[] keyColumns) {
+        if (dirty.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (String key : keyColumns) {
+            changes.put(key, values.get(key));
+        }
+        for (String column : dirty) {
+            changes.put(column, values.get(column));
+        }
+        dirty.clear();
+        return changes;
+    }
+
+    /**
+     * Marks Columns of a failed Flush as dirty again. Call under the Session Lock
+     * @param columns
+     */
+    void restoreChanges(Set<String> columns) {
+        dirty.addAll(columns);
+    }
+
+    boolean isStored() {
+        return stored;
+    }
+
+    void setStored(boolean stored) {
+        this.stored = stored;
+    }
+
+    Object valueUnlocked(String column) {
+        return values.get(column);
+    }
+}
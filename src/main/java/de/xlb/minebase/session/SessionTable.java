@@ -0,0 +1,26 @@
+package de.xlb.minebase.session;
+
+import de.xlb.minebase.api.MineDb;
+
+/**
+ * Table registered for Player Sessions
+ */
+final class SessionTable {
+    final MineDb db;
+    final String table;
+    final String playerColumn;
+    final String[] keyColumns;
+
+    /**
+     * @param db
+     * @param table
+     * @param playerColumn Column with the Player UUID
+     * @param keyColumns   Primary Key or Unique Columns, the playerColumn if empty
+     */
+    SessionTable(MineDb db, String table, String playerColumn, String[] keyColumns) {
+        this.db = db;
+        this.table = table;
+        this.playerColumn = playerColumn;
+        this.keyColumns = keyColumns != null && keyColumns.length > 0 ? keyColumns.clone() : new String[]{playerColumn};
+    }
+}
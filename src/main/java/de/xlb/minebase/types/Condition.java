@@ -0,0 +1,116 @@
+package de.xlb.minebase.types;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parameterized WHERE Condition
+ * Values are bound as Parameters, so the generated SQL stays the same for different Values
+ * Create with the Helper Functions in de.xlb.minebase.utils.Builder
+ * Used by the *Where Methods (selectWhere, updateWhere, deleteWhere), the plain Names keep raw String Conditions
+ */
+public class Condition {
+    private final String sql;
+    private final List<Object> params;
+    private final Map<String, Object> equalities;
+
+    /**
+     * Create Condition from SQL with ? Placeholders
+     * @param sql    "age > ?"
+     * @param params [18]
+     */
+    public Condition(String sql, Object... params) {
+        this.sql = sql;
+        this.params = new ArrayList<>(Arrays.asList(params != null ? params : new Object[]{null}));
+        this.equalities = Collections.emptyMap();
+    }
+
+    private Condition(String sql, List<Object> params, Map<String, Object> equalities) {
+        this.sql = sql;
+        this.params = params;
+        this.equalities = equalities;
+    }
+
+    /**
+     * Column equals Value
+     * @param column
+     * @param value
+     * @return Condition
+     */
+    public static Condition eq(String column, Object value) {
+        List<Object> params = new ArrayList<>();
+        params.add(value);
+        return new Condition(column + " = ?", params, Collections.singletonMap(column, value));
+    }
+
+    /**
+     * Gets the SQL with Placeholders
+     * @return String
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Gets the Parameters in Placeholder Order
+     * @return Object[]
+     */
+    public Object[] getParams() {
+        return params.toArray();
+    }
+
+    /**
+     * Columns that are pinned to a Value by eq() Conditions joined with AND
+     * @return Map<Column, Value>
+     */
+    public Map<String, Object> getEqualities() {
+        return Collections.unmodifiableMap(equalities);
+    }
+
+    /**
+     * Both Conditions must match
+     * @param other
+     * @return Condition
+     */
+    public Condition and(Condition other) {
+        if (other == null) return this;
+        Map<String, Object> combined = new LinkedHashMap<>(equalities);
+        combined.putAll(other.equalities);
+        return combine(other, " AND ", combined);
+    }
+
+    /**
+     * One of the Conditions must match
+     * @param other
+     * @return Condition
+     */
+    public Condition or(Condition other) {
+        if (other == null) return this;
+        return combine(other, " OR ", Collections.emptyMap());
+    }
+
+    private Condition combine(Condition other, String operator, Map<String, Object> equalities) {
+        List<Object> combined = new ArrayList<>(params);
+        combined.addAll(other.params);
+        return new Condition("(" + sql + ")" + operator + "(" + other.sql + ")", combined, equalities);
+    }
+
+    /**
+     * Wraps raw String Conditions, joined with AND
+     * @param condition ["age > 18", "name is not null"]
+     * @return Condition, null if no Condition is given
+     */
+    public static Condition raw(String[] condition) {
+        if (condition == null || condition.length == 0) return null;
+        return new Condition(String.join(" AND ", condition), new ArrayList<>(), Collections.emptyMap());
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + params;
+    }
+}
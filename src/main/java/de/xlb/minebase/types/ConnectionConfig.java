@@ -0,0 +1,229 @@
+package de.xlb.minebase.types;
+
+/**
+ * Class for tuning the SQLite Connection
+ * Values that are not set keep the SQLite Default
+ * Presets: durable(), balanced(), throughput()
+ */
+public class ConnectionConfig {
+    private JournalMode journalMode = null;
+    private Synchronous synchronous = null;
+    private Integer cacheSize = null;
+    private Long mmapSize = null;
+    private TempStore tempStore = null;
+    private Integer busyTimeout = null;
+    private Integer pageSize = null;
+    private int statementCacheSize = 64;
+    private int readerPoolSize = 0;
+    private long acquireTimeoutMillis = 5000;
+
+    /**
+     * PRAGMA journal_mode
+     */
+    public enum JournalMode {
+        DELETE,
+        TRUNCATE,
+        PERSIST,
+        MEMORY,
+        WAL,
+        OFF
+    }
+
+    /**
+     * PRAGMA synchronous
+     */
+    public enum Synchronous {
+        OFF,
+        NORMAL,
+        FULL,
+        EXTRA
+    }
+
+    /**
+     * PRAGMA temp_store
+     */
+    public enum TempStore {
+        DEFAULT,
+        FILE,
+        MEMORY
+    }
+
+    //##################################################################################################################
+    //################################################Presets###########################################################
+    //##################################################################################################################
+
+    /**
+     * WAL with full fsync on every Commit, no Data Loss on Power Failure
+     * @return ConnectionConfig
+     */
+    public static ConnectionConfig durable() {
+        ConnectionConfig conf = new ConnectionConfig();
+        conf.setJournalMode(JournalMode.WAL);
+        conf.setSynchronous(Synchronous.FULL);
+        conf.setBusyTimeout(5000);
+        conf.setReaderPoolSize(4);
+        return conf;
+    }
+
+    /**
+     * WAL with fsync on Checkpoints only, last Commits can be lost on Power Failure but never corrupt
+     * @return ConnectionConfig
+     */
+    public static ConnectionConfig balanced() {
+        ConnectionConfig conf = new ConnectionConfig();
+        conf.setJournalMode(JournalMode.WAL);
+        conf.setSynchronous(Synchronous.NORMAL);
+        conf.setCacheSize(-16000);
+        conf.setTempStore(TempStore.MEMORY);
+        conf.setBusyTimeout(5000);
+        conf.setReaderPoolSize(4);
+        return conf;
+    }
+
+    /**
+     * WAL without fsync, big Cache and Memory Mapping. For Data that can be rebuilt
+     * @return ConnectionConfig
+     */
+    public static ConnectionConfig throughput() {
+        ConnectionConfig conf = new ConnectionConfig();
+        conf.setJournalMode(JournalMode.WAL);
+        conf.setSynchronous(Synchronous.OFF);
+        conf.setCacheSize(-64000);
+        conf.setMmapSize(256L * 1024 * 1024);
+        conf.setTempStore(TempStore.MEMORY);
+        conf.setBusyTimeout(5000);
+        conf.setReaderPoolSize(4);
+        return conf;
+    }
+
+    /**
+     * Preset by Name
+     * @param name durable, balanced or throughput
+     * @return ConnectionConfig
+     */
+    public static ConnectionConfig preset(String name) {
+        switch (name.toLowerCase()) {
+            case "durable":
+                return durable();
+            case "balanced":
+                return balanced();
+            case "throughput":
+                return throughput();
+            default:
+                throw new IllegalArgumentException("Unknown connection preset: " + name);
+        }
+    }
+
+    //##################################################################################################################
+    //################################################Settings##########################################################
+    //##################################################################################################################
+
+    public void setJournalMode(JournalMode journalMode) {
+        this.journalMode = journalMode;
+    }
+
+    public JournalMode getJournalMode() {
+        return journalMode;
+    }
+
+    public void setSynchronous(Synchronous synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    public Synchronous getSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * PRAGMA cache_size
+     * @param cacheSize Pages, negative Values are KiB
+     */
+    public void setCacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * PRAGMA mmap_size
+     * @param mmapSize Bytes, 0 disables Memory Mapping
+     */
+    public void setMmapSize(Long mmapSize) {
+        this.mmapSize = mmapSize;
+    }
+
+    public Long getMmapSize() {
+        return mmapSize;
+    }
+
+    public void setTempStore(TempStore tempStore) {
+        this.tempStore = tempStore;
+    }
+
+    public TempStore getTempStore() {
+        return tempStore;
+    }
+
+    /**
+     * PRAGMA busy_timeout
+     * @param busyTimeout Milliseconds to wait for a Lock
+     */
+    public void setBusyTimeout(Integer busyTimeout) {
+        this.busyTimeout = busyTimeout;
+    }
+
+    public Integer getBusyTimeout() {
+        return busyTimeout;
+    }
+
+    /**
+     * PRAGMA page_size, only applies to new Databases (or after VACUUM)
+     * @param pageSize Bytes, Power of 2 between 512 and 65536
+     */
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Max cached PreparedStatements per Connection
+     * @param statementCacheSize
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Read-only Connections for parallel Selects, 0 = all Queries use the Writer Connection
+     * Readers only run in parallel to Writes with JournalMode.WAL
+     * @param readerPoolSize
+     */
+    public void setReaderPoolSize(int readerPoolSize) {
+        this.readerPoolSize = Math.max(0, readerPoolSize);
+    }
+
+    public int getReaderPoolSize() {
+        return readerPoolSize;
+    }
+
+    /**
+     * Max Wait for a free Connection, afterwards the Query fails with ReturnErrors.TIMEOUT
+     * @param acquireTimeoutMillis
+     */
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+}
@@ -1,5 +1,8 @@
 package de.xlb.minebase.types;
 
+import de.xlb.minebase.utils.BlobCodec;
+
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -7,7 +10,7 @@ import java.util.Map;
  * Class to define Insert Row
  */
 public class InsertRow {
-    private final Map<String, String> insertMap = new HashMap<>();
+    private final Map<String, Object> insertMap = new HashMap<>();
 
     /**
      * Define Columnname and Value
@@ -18,6 +21,60 @@ public class InsertRow {
         insertMap.put(colName, colValue);
     }
 
+    /**
+     * Define Columnname and Integer Value, bound as INTEGER
+     * @param colName
+     * @param colValue
+     */
+    public void put(String colName, long colValue){
+        insertMap.put(colName, colValue);
+    }
+
+    /**
+     * Define Columnname and Floating Point Value, bound as REAL
+     * @param colName
+     * @param colValue
+     */
+    public void put(String colName, double colValue){
+        insertMap.put(colName, colValue);
+    }
+
+    /**
+     * Define Columnname and Boolean Value, bound as INTEGER 1/0
+     * @param colName
+     * @param colValue
+     */
+    public void put(String colName, boolean colValue){
+        insertMap.put(colName, colValue);
+    }
+
+    /**
+     * Define Columnname and Binary Value, bound as BLOB
+     * @param colName
+     * @param colValue
+     */
+    public void putBytes(String colName, byte[] colValue){
+        insertMap.put(colName, colValue);
+    }
+
+    /**
+     * Define Columnname and a complex Value (Map, List, String, Number, ...) encoded with BlobCodec, bound as BLOB
+     * Read it back with ReturnSet.getBlob()
+     * @param colName
+     * @param colValue
+     */
+    public void putBlob(String colName, Object colValue){
+        insertMap.put(colName, colValue != null ? BlobCodec.encode(colValue) : null);
+    }
+
+    /**
+     * Define Columnname with NULL Value
+     * @param colName
+     */
+    public void putNull(String colName){
+        insertMap.put(colName, null);
+    }
+
     /**
      * Gets all Columns
      * @return String[]
@@ -26,12 +83,27 @@ public class InsertRow {
         return insertMap.keySet().toArray(new String[0]);
     }
 
+    /**
+     * Get Value of a Column
+     * @param colName
+     * @return String, Long, Double, Boolean, byte[] or null
+     */
+    public Object getValue(String colName){
+        return insertMap.get(colName);
+    }
+
     /**
      * Get all Values
      * @return String[]
      */
     public String[] getValues(){
-        return insertMap.values().toArray(new String[0]);
+        String[] values = new String[insertMap.size()];
+        int i = 0;
+        for (Object value : insertMap.values()) {
+            values[i++] = value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8)
+                    : value != null ? value.toString() : null;
+        }
+        return values;
     }
 
     /**
@@ -1,7 +1,15 @@
 package de.xlb.minebase.types;
 
-import java.util.ArrayList;
-import java.util.List;
+import de.xlb.minebase.utils.BlobCodec;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ReturnSet {
@@ -18,6 +26,8 @@ public class ReturnSet {
         UNKNOWN,
         NO_DATA,
         PARTLY_INSERT,
+        NO_PRIMARY_KEY,
+        TIMEOUT,
     }
 
     /**
@@ -65,15 +75,200 @@ public class ReturnSet {
         return this.changedRows;
     }
 
+    //###########################################################FAILED ROWS###########################################
+    private final Map<Integer, Exception> failedRows = new LinkedHashMap<>();
+
+    /**
+     * Marks a Row of a Multi Row Operation as failed
+     * @param rowIndex Index in InsertMultiRows
+     * @param exception
+     */
+    public void addFailedRow(int rowIndex, Exception exception){
+        failedRows.put(rowIndex, exception);
+    }
+
+    /**
+     * Failed Rows of a Multi Row Operation
+     * @return Map<RowIndex, Exception>
+     */
+    public Map<Integer, Exception> getFailedRows(){
+        return Collections.unmodifiableMap(failedRows);
+    }
+
+    /**
+     * Has any Row of a Multi Row Operation failed
+     * @return boolean
+     */
+    public boolean hasFailedRows(){
+        return !failedRows.isEmpty();
+    }
+
+    //###########################################################PAGE##################################################
+    private String nextPageToken = null;
+
+    /**
+     * Token for the next Page of MineDb.selectPage()
+     * @return String, null on the last Page
+     */
+    public String getNextPageToken(){
+        return this.nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken){
+        this.nextPageToken = nextPageToken;
+    }
+
     //###########################################################DATA##################################################
-    private List<Map<String, String>> rows = new ArrayList<>();
+    // Cells are stored row by row in flat Arrays: Cell = row * columnCount + column
+    // Integers and Doubles (as Bits) share numbers[], Strings and byte[] share objects[]
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_LONG = 1;
+    private static final byte TYPE_DOUBLE = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_BYTES = 4;
+
+    private String[] columnNames = new String[0];
+    private Map<String, Integer> columnIndex = new HashMap<>();
+    private int rowCount = 0;
+    private byte[] types = new byte[0];
+    private long[] numbers = new long[0];
+    private Object[] objects = new Object[0];
+
+    /**
+     * Defines the Columns of the Result, shared by all Rows
+     * @param names
+     */
+    public void setColumns(String... names) {
+        if (rowCount > 0) {
+            for (String name : names) {
+                ensureColumn(name);
+            }
+            return;
+        }
+        this.columnNames = names.clone();
+        this.columnIndex = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            columnIndex.putIfAbsent(names[i], i);
+        }
+    }
+
+    /**
+     * Names of the Columns in Result Order
+     * @return String[]
+     */
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    /**
+     * Index of a Column
+     * @param columnName
+     * @return int, -1 if the Column doesn't exist
+     */
+    public int getColumnIndex(String columnName) {
+        Integer index = columnIndex.get(columnName);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Adds an empty Row, Values are set with the Setters
+     * @return Index of the new Row
+     */
+    public int addRow() {
+        int cells = (rowCount + 1) * columnNames.length;
+        if (cells > types.length) {
+            int capacity = Math.max(cells, types.length * 2);
+            types = Arrays.copyOf(types, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        return rowCount++;
+    }
+
+    /**
+     * Adds a Row with Values in Column Order
+     * @param values
+     */
+    public void addRow(Object[] values) {
+        int row = addRow();
+        for (int i = 0; i < values.length && i < columnNames.length; i++) {
+            setValue(row, i, values[i]);
+        }
+    }
+
+    /**
+     * Drops all Rows from Index on
+     * @param rows Rows to keep
+     */
+    public void truncate(int rows) {
+        if (rows < 0 || rows >= rowCount) {
+            return;
+        }
+        int cells = rows * columnNames.length;
+        Arrays.fill(objects, cells, rowCount * columnNames.length, null);
+        rowCount = rows;
+    }
 
     /**
      * Adds selected Row
      * @param row
      */
     public void addRow(Map<String, String> row) {
-        rows.add(row);
+        for (String name : row.keySet()) {
+            ensureColumn(name);
+        }
+        int rowIndex = addRow();
+        for (Map.Entry<String, String> entry : row.entrySet()) {
+            setValue(rowIndex, columnIndex.get(entry.getKey()), entry.getValue());
+        }
+    }
+
+    public void setLong(int row, int column, long value) {
+        int cell = cell(row, column);
+        types[cell] = TYPE_LONG;
+        numbers[cell] = value;
+        objects[cell] = null;
+    }
+
+    public void setDouble(int row, int column, double value) {
+        int cell = cell(row, column);
+        types[cell] = TYPE_DOUBLE;
+        numbers[cell] = Double.doubleToRawLongBits(value);
+        objects[cell] = null;
+    }
+
+    public void setString(int row, int column, String value) {
+        setObject(row, column, value, TYPE_STRING);
+    }
+
+    public void setBytes(int row, int column, byte[] value) {
+        setObject(row, column, value, TYPE_BYTES);
+    }
+
+    public void setNull(int row, int column) {
+        setObject(row, column, null, TYPE_NULL);
+    }
+
+    /**
+     * Sets a Value with the matching typed Setter
+     * @param row
+     * @param column
+     * @param value Long, Integer, Double, String, byte[] or null
+     */
+    public void setValue(int row, int column, Object value) {
+        if (value == null) {
+            setNull(row, column);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            setLong(row, column, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            setDouble(row, column, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            setLong(row, column, (Boolean) value ? 1 : 0);
+        } else if (value instanceof byte[]) {
+            setBytes(row, column, (byte[]) value);
+        } else {
+            setString(row, column, value.toString());
+        }
     }
 
     /**
@@ -81,17 +276,35 @@ public class ReturnSet {
      * @return int
      */
     public int resultSize() {
-        return rows.size();
+        return rowCount;
     }
 
     /**
      * Gets Row by Index
+     * Copy of the Row as Strings, use the typed Getters to avoid Conversions
      * @param index
      * @return Map<String, String>
      */
     public Map<String, String> getRow(int index) {
-        if (index < 0 || index >= rows.size()) return null;
-        return rows.get(index);
+        if (index < 0 || index >= rowCount) return null;
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            row.put(columnNames[i], getString(index, i));
+        }
+        return row;
+    }
+
+    /**
+     * Gets Row Values in Column Order
+     * @param index
+     * @return Object[] with Long, Double, String, byte[] or null
+     */
+    public Object[] getRowValues(int index) {
+        Object[] values = new Object[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            values[i] = getValue(index, i);
+        }
+        return values;
     }
 
     /**
@@ -101,7 +314,283 @@ public class ReturnSet {
      * @return String
      */
     public String getColumn(int rowIndex, String columnName) {
-        Map<String, String> row = getRow(rowIndex);
-        return row != null ? row.get(columnName) : null;
+        int column = getColumnIndex(columnName);
+        if (rowIndex < 0 || rowIndex >= rowCount || column < 0) return null;
+        return getString(rowIndex, column);
+    }
+
+    //###########################################################TYPED#################################################
+
+    public boolean isNull(int row, int column) {
+        return types[cell(row, column)] == TYPE_NULL;
+    }
+
+    public boolean isNull(int row, String column) {
+        return isNull(row, column(column));
+    }
+
+    /**
+     * Value as long, null is 0
+     * @param row
+     * @param column
+     * @return long
+     * @throws IllegalArgumentException if the Cell is a BLOB
+     */
+    public long getLong(int row, int column) {
+        int cell = cell(row, column);
+        switch (types[cell]) {
+            case TYPE_LONG:
+                return numbers[cell];
+            case TYPE_DOUBLE:
+                return (long) Double.longBitsToDouble(numbers[cell]);
+            case TYPE_STRING:
+                String value = ((String) objects[cell]).trim();
+                try {
+                    return Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    return (long) Double.parseDouble(value);
+                }
+            case TYPE_BYTES:
+                throw blobCell(row, column);
+            default:
+                return 0;
+        }
+    }
+
+    public long getLong(int row, String column) {
+        return getLong(row, column(column));
+    }
+
+    public int getInt(int row, int column) {
+        return (int) getLong(row, column);
+    }
+
+    public int getInt(int row, String column) {
+        return getInt(row, column(column));
+    }
+
+    public boolean getBoolean(int row, int column) {
+        return getLong(row, column) != 0;
+    }
+
+    public boolean getBoolean(int row, String column) {
+        return getBoolean(row, column(column));
+    }
+
+    /**
+     * Value as double, null is 0
+     * @param row
+     * @param column
+     * @return double
+     * @throws IllegalArgumentException if the Cell is a BLOB
+     */
+    public double getDouble(int row, int column) {
+        int cell = cell(row, column);
+        switch (types[cell]) {
+            case TYPE_LONG:
+                return numbers[cell];
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(numbers[cell]);
+            case TYPE_STRING:
+                return Double.parseDouble(((String) objects[cell]).trim());
+            case TYPE_BYTES:
+                throw blobCell(row, column);
+            default:
+                return 0;
+        }
+    }
+
+    public double getDouble(int row, String column) {
+        return getDouble(row, column(column));
+    }
+
+    /**
+     * Value as String, like SQLite would render it (REAL see realToString())
+     * @param row
+     * @param column
+     * @return String, null for NULL
+     */
+    public String getString(int row, int column) {
+        int cell = cell(row, column);
+        switch (types[cell]) {
+            case TYPE_LONG:
+                return Long.toString(numbers[cell]);
+            case TYPE_DOUBLE:
+                return realToString(Double.longBitsToDouble(numbers[cell]));
+            case TYPE_STRING:
+                return (String) objects[cell];
+            case TYPE_BYTES:
+                return new String((byte[]) objects[cell], StandardCharsets.UTF_8);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * REAL as SQLite renders it (printf "%!.15g"): 15 significant Digits, at least one Decimal,
+     * Exponent below 1e-4 and from 1e15, e.g. 0.3, 10000000000.0, 1.0e+15, 1.5e-07
+     * @param value
+     * @return String
+     */
+    static String realToString(double value) {
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "Inf" : "-Inf";
+        }
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        if (value == 0) {
+            return "0.0";
+        }
+        BigDecimal rounded = new BigDecimal(value).round(new MathContext(15, RoundingMode.HALF_UP)).stripTrailingZeros();
+        int exponent = rounded.precision() - rounded.scale() - 1;
+        if (exponent < -4 || exponent >= 15) {
+            String digits = rounded.unscaledValue().abs().toString();
+            return (value < 0 ? "-" : "") + digits.charAt(0) + "." + (digits.length() > 1 ? digits.substring(1) : "0")
+                    + "e" + (exponent < 0 ? "-" : "+") + (Math.abs(exponent) < 10 ? "0" : "") + Math.abs(exponent);
+        }
+        String plain = rounded.toPlainString();
+        return plain.indexOf('.') < 0 ? plain + ".0" : plain;
+    }
+
+    public String getString(int row, String column) {
+        return getString(row, column(column));
+    }
+
+    /**
+     * Value as byte[], Text is UTF-8 encoded
+     * @param row
+     * @param column
+     * @return byte[], a Copy, null for NULL
+     */
+    public byte[] getBytes(int row, int column) {
+        byte[] value = bytes(row, column);
+        return value != null && types[cell(row, column)] == TYPE_BYTES ? value.clone() : value;
+    }
+
+    public byte[] getBytes(int row, String column) {
+        return getBytes(row, column(column));
+    }
+
+    /**
+     * Value as byte[] without copying BLOBs, the Array may be shared with cached ReturnSets
+     * @param row
+     * @param column
+     * @return byte[], null for NULL
+     */
+    private byte[] bytes(int row, int column) {
+        int cell = cell(row, column);
+        switch (types[cell]) {
+            case TYPE_BYTES:
+                return (byte[]) objects[cell];
+            case TYPE_NULL:
+                return null;
+            default:
+                return getString(row, column).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Value decoded with BlobCodec, the Counterpart of InsertRow.putBlob()
+     * @param row
+     * @param column
+     * @return Object, Map, List, Long, Double, String, ... or null for NULL
+     * @throws IllegalArgumentException if the Cell holds no BlobCodec Value
+     */
+    public Object getBlob(int row, int column) {
+        return BlobCodec.decode(bytes(row, column));
+    }
+
+    public Object getBlob(int row, String column) {
+        return getBlob(row, column(column));
+    }
+
+    /**
+     * Value decoded with BlobCodec as Map
+     * @param row
+     * @param column
+     * @return Map<String, Object>, null for NULL
+     */
+    public Map<String, Object> getBlobMap(int row, String column) {
+        return BlobCodec.decodeMap(bytes(row, column(column)));
+    }
+
+    /**
+     * Value as Object
+     * @param row
+     * @param column
+     * @return Long, Double, String, byte[] (a Copy) or null
+     */
+    public Object getValue(int row, int column) {
+        int cell = cell(row, column);
+        switch (types[cell]) {
+            case TYPE_LONG:
+                return numbers[cell];
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(numbers[cell]);
+            case TYPE_STRING:
+                return objects[cell];
+            case TYPE_BYTES:
+                return ((byte[]) objects[cell]).clone();
+            default:
+                return null;
+        }
+    }
+
+    public Object getValue(int row, String column) {
+        return getValue(row, column(column));
+    }
+
+    private IllegalArgumentException blobCell(int row, int column) {
+        return new IllegalArgumentException("Column " + columnNames[column] + " of row " + row + " is a BLOB, use getBytes or getBlob");
+    }
+
+    private int column(String columnName) {
+        int column = getColumnIndex(columnName);
+        if (column < 0) {
+            throw new IllegalArgumentException("Unknown column: " + columnName);
+        }
+        return column;
+    }
+
+    private int cell(int row, int column) {
+        if (row < 0 || row >= rowCount || column < 0 || column >= columnNames.length) {
+            throw new IndexOutOfBoundsException("Cell " + row + ":" + column + " outside of " + rowCount + "x" + columnNames.length);
+        }
+        return row * columnNames.length + column;
+    }
+
+    private void setObject(int row, int column, Object value, byte type) {
+        int cell = cell(row, column);
+        types[cell] = value == null ? TYPE_NULL : type;
+        numbers[cell] = 0;
+        objects[cell] = value;
+    }
+
+    /**
+     * Adds a Column if it doesn't exist, existing Rows get NULL
+     * @param name
+     */
+    private void ensureColumn(String name) {
+        if (columnIndex.containsKey(name)) {
+            return;
+        }
+        int oldCount = columnNames.length;
+        int newCount = oldCount + 1;
+        byte[] newTypes = new byte[rowCount * newCount];
+        long[] newNumbers = new long[rowCount * newCount];
+        Object[] newObjects = new Object[rowCount * newCount];
+        for (int row = 0; row < rowCount; row++) {
+            System.arraycopy(types, row * oldCount, newTypes, row * newCount, oldCount);
+            System.arraycopy(numbers, row * oldCount, newNumbers, row * newCount, oldCount);
+            System.arraycopy(objects, row * oldCount, newObjects, row * newCount, oldCount);
+        }
+        types = newTypes;
+        numbers = newNumbers;
+        objects = newObjects;
+
+        columnNames = Arrays.copyOf(columnNames, newCount);
+        columnNames[oldCount] = name;
+        columnIndex.put(name, oldCount);
     }
 }
@@ -3,6 +3,7 @@ package de.xlb.minebase.types;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +15,7 @@ public class TableConfig {
     private final String tableName;
     private List<Map<String, String>> tableColumns = new ArrayList<>();
     private String[] primaryKeys = null;
+    private List<Map<String, Object>> indexes = new ArrayList<>();
 
     /**
      * Create Table Config for a Table
@@ -64,6 +66,19 @@ public class TableConfig {
         this.tableColumns.add(column);
     }
 
+    /**
+     * Add renamed Column to Config, migrateTable() renames the old Column and keeps its Data
+     * @param colName
+     * @param colType
+     * @param renamedFrom old Columnname
+     */
+    public void addColumn(@NotNull String colName, @NotNull ColTypes colType, String renamedFrom){
+        addColumn(colName, colType);
+        if (renamedFrom != null) {
+            this.tableColumns.get(this.tableColumns.size() - 1).put("rename_from", renamedFrom);
+        }
+    }
+
     /**
      * Add Columnconfiglist
      * @param columnList
@@ -96,4 +111,54 @@ public class TableConfig {
         return this.primaryKeys;
     }
 
+    /**
+     * Add Index to Config
+     * @param indexName null = idx_Tablename_Columns
+     * @param columns
+     */
+    public void addIndex(String indexName, @NotNull String... columns){
+        addIndex(indexName, false, null, columns);
+    }
+
+    /**
+     * Add Unique Index to Config
+     * @param indexName null = idx_Tablename_Columns
+     * @param columns
+     */
+    public void addUniqueIndex(String indexName, @NotNull String... columns){
+        addIndex(indexName, true, null, columns);
+    }
+
+    /**
+     * Add Index to Config
+     * @param indexName null = idx_Tablename_Columns
+     * @param unique
+     * @param where     Condition for a partial Index, null indexes all Rows
+     * @param columns
+     */
+    public void addIndex(String indexName, boolean unique, String where, @NotNull String... columns){
+        Map<String, Object> index = new HashMap<>();
+        index.put("name", indexName);
+        index.put("columns", new ArrayList<>(Arrays.asList(columns)));
+        index.put("unique", unique);
+        index.put("where", where);
+        this.indexes.add(index);
+    }
+
+    /**
+     * Add Indexconfiglist
+     * @param indexList [{name, columns, unique, where}]
+     */
+    public void addIndexList(List<Map<String, Object>> indexList){
+        this.indexes = indexList;
+    }
+
+    /**
+     * Get Indexconfig
+     * @return List<Map<String, Object>>
+     */
+    public List<Map<String, Object>> getIndexes(){
+        return this.indexes;
+    }
+
 }
@@ -1,5 +1,8 @@
 package de.xlb.minebase.types;
 
+import de.xlb.minebase.utils.BlobCodec;
+
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -7,7 +10,7 @@ import java.util.Map;
  * Define Update
  */
 public class UpdateRow {
-    private final Map<String, String> updateMap = new HashMap<>();
+    private final Map<String, Object> updateMap = new HashMap<>();
 
     /**
      * Add Column and Value to Update
@@ -18,6 +21,60 @@ public class UpdateRow {
         updateMap.put(colName, colValue);
     }
 
+    /**
+     * Add Column and Integer Value to Update, bound as INTEGER
+     * @param colName
+     * @param colValue
+     */
+    public void put(String colName, long colValue){
+        updateMap.put(colName, colValue);
+    }
+
+    /**
+     * Add Column and Floating Point Value to Update, bound as REAL
+     * @param colName
+     * @param colValue
+     */
+    public void put(String colName, double colValue){
+        updateMap.put(colName, colValue);
+    }
+
+    /**
+     * Add Column and Boolean Value to Update, bound as INTEGER 1/0
+     * @param colName
+     * @param colValue
+     */
+    public void put(String colName, boolean colValue){
+        updateMap.put(colName, colValue);
+    }
+
+    /**
+     * Add Column and Binary Value to Update, bound as BLOB
+     * @param colName
+     * @param colValue
+     */
+    public void putBytes(String colName, byte[] colValue){
+        updateMap.put(colName, colValue);
+    }
+
+    /**
+     * Add Column and a complex Value (Map, List, String, Number, ...) encoded with BlobCodec, bound as BLOB
+     * Read it back with ReturnSet.getBlob()
+     * @param colName
+     * @param colValue
+     */
+    public void putBlob(String colName, Object colValue){
+        updateMap.put(colName, colValue != null ? BlobCodec.encode(colValue) : null);
+    }
+
+    /**
+     * Add Column with NULL Value to Update
+     * @param colName
+     */
+    public void putNull(String colName){
+        updateMap.put(colName, null);
+    }
+
     /**
      * Get Columnnames to update
      * @return String[]
@@ -26,12 +83,27 @@ public class UpdateRow {
         return updateMap.keySet().toArray(new String[0]);
     }
 
+    /**
+     * Get Value of a Column
+     * @param colName
+     * @return String, Long, Double, Boolean, byte[] or null
+     */
+    public Object getValue(String colName){
+        return updateMap.get(colName);
+    }
+
     /**
      * Get Columnvalues to update
      * @return String[]
      */
     public String[] getValues(){
-        return updateMap.values().toArray(new String[0]);
+        String[] values = new String[updateMap.size()];
+        int i = 0;
+        for (Object value : updateMap.values()) {
+            values[i++] = value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8)
+                    : value != null ? value.toString() : null;
+        }
+        return values;
     }
 
     /**
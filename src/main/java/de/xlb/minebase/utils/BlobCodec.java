@@ -0,0 +1,424 @@
+package de.xlb.minebase.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary Format for BLOB Columns
+ * Encodes null, Boolean, Integers (zigzag Varints), Double, Float, String, byte[], UUID, Collections, Arrays
+ * and Maps. Repeated Strings (e.g. Map Keys or Material Names) are written once and referenced by Index.
+ * Blobs above the Compression Threshold are deflated if that makes them smaller, Bodies above 64 MiB stay uncompressed.
+ * Decoded Integers are Long, Collections ArrayList and Maps LinkedHashMap
+ */
+public final class BlobCodec {
+    //Deflating costs a fixed ~30µs per Blob (zlib resets its Tables), only worth it for larger Blobs
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 4096;
+
+    //Header
+    private static final byte VERSION = 1;
+    private static final byte FLAG_DEFLATE = 0x10;
+    //Deflate can't shrink Data more than ~1032:1, a longer inflated Length means a corrupt Header
+    private static final int MAX_DEFLATE_RATIO = 1032;
+    private static final int MAX_INFLATED_LENGTH = 64 * 1024 * 1024;
+
+    //Tags
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte STRING = 6;
+    private static final byte STRING_REF = 7;
+    private static final byte BYTES = 8;
+    private static final byte LIST = 9;
+    private static final byte MAP = 10;
+    private static final byte UUID_VALUE = 11;
+
+    //zlib Streams are expensive to create and hold native Memory, a few are pooled and the Rest is ended after Use
+    private static final int POOL_SIZE = 8;
+    private static final BlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Inflater> INFLATERS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private BlobCodec() {
+    }
+
+    /**
+     * Encodes a Value, deflated above DEFAULT_COMPRESSION_THRESHOLD Bytes
+     * @param value
+     * @return byte[]
+     * @throws IllegalArgumentException if the Value contains an unsupported Type
+     */
+    public static byte[] encode(Object value) {
+        return encode(value, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Encodes a Value
+     * @param value
+     * @param compressionThreshold Bytes from which the Blob is deflated, -1 to never compress
+     * @return byte[]
+     * @throws IllegalArgumentException if the Value contains an unsupported Type
+     */
+    public static byte[] encode(Object value, int compressionThreshold) {
+        Writer writer = new Writer();
+        writer.buf[writer.pos++] = VERSION;
+        writer.write(value);
+
+        int bodyLength = writer.pos - 1;
+        if (compressionThreshold >= 0 && bodyLength >= compressionThreshold && bodyLength <= MAX_INFLATED_LENGTH) {
+            byte[] compressed = deflate(writer.buf, 1, bodyLength);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        return Arrays.copyOf(writer.buf, writer.pos);
+    }
+
+    /**
+     * Decodes a Blob created by encode()
+     * @param blob
+     * @return Object, null for a null Blob
+     * @throws IllegalArgumentException if the Blob is broken
+     */
+    public static Object decode(byte[] blob) {
+        if (blob == null) {
+            return null;
+        }
+        if (blob.length == 0 || (blob[0] & 0x0F) != VERSION) {
+            throw new IllegalArgumentException("Not a Minebase blob");
+        }
+        try {
+            Reader reader;
+            if ((blob[0] & FLAG_DEFLATE) != 0) {
+                Reader header = new Reader(blob, 1);
+                int length = header.readVarInt();
+                reader = new Reader(inflate(blob, header.pos, length), 0);
+            } else {
+                reader = new Reader(blob, 1);
+            }
+            return reader.read();
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException | DataFormatException e) {
+            throw new IllegalArgumentException("Broken Minebase blob", e);
+        }
+    }
+
+    /**
+     * Decodes a Blob that holds a Map
+     * @param blob
+     * @return Map<String, Object>, null for a null Blob
+     * @throws IllegalArgumentException if the Blob is broken or no Map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> decodeMap(byte[] blob) {
+        Object value = decode(blob);
+        if (value != null && !(value instanceof Map)) {
+            throw new IllegalArgumentException("Blob holds no map: " + value.getClass().getSimpleName());
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Ends the pooled zlib Streams and frees their native Memory, call on Disable
+     * Later Calls of encode()/decode() create new Streams
+     */
+    public static void releaseStreams() {
+        Deflater deflater;
+        while ((deflater = DEFLATERS.poll()) != null) {
+            deflater.end();
+        }
+        Inflater inflater;
+        while ((inflater = INFLATERS.poll()) != null) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Deflates the Body behind a Header with the raw Length
+     * @return byte[], null if the Result isn't smaller
+     */
+    private static byte[] deflate(byte[] data, int offset, int length) {
+        Deflater pooled = DEFLATERS.poll();
+        Deflater deflater = pooled != null ? pooled : new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+
+            Writer out = new Writer();
+            out.buf[out.pos++] = VERSION | FLAG_DEFLATE;
+            out.writeVarInt(length);
+            while (!deflater.finished()) {
+                out.ensure(Math.max(64, length / 4));
+                out.pos += deflater.deflate(out.buf, out.pos, out.buf.length - out.pos);
+                if (out.pos >= length + 1) {
+                    return null;
+                }
+            }
+            return Arrays.copyOf(out.buf, out.pos);
+        } finally {
+            deflater.reset();
+            if (!DEFLATERS.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) throws DataFormatException {
+        Inflater pooled = INFLATERS.poll();
+        Inflater inflater = pooled != null ? pooled : new Inflater();
+        try {
+            int compressed = data.length - offset;
+            if (length < 0 || length > MAX_INFLATED_LENGTH || length > (long) compressed * MAX_DEFLATE_RATIO) {
+                throw new DataFormatException("Invalid inflated length " + length);
+            }
+            inflater.setInput(data, offset, compressed);
+            byte[] result = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(result, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new DataFormatException("Expected " + length + " bytes, got " + read);
+            }
+            return result;
+        } finally {
+            inflater.reset();
+            if (!INFLATERS.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Growing Buffer with the String Dictionary of one Blob
+     */
+    private static final class Writer {
+        private byte[] buf = new byte[128];
+        private int pos = 0;
+        private Map<String, Integer> strings;
+
+        private void ensure(int bytes) {
+            if (pos + bytes > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + bytes));
+            }
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int i = 7; i >= 0; i--) {
+                buf[pos++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        private void writeInt(int value) {
+            ensure(4);
+            for (int i = 3; i >= 0; i--) {
+                buf[pos++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        private void tag(byte tag) {
+            ensure(1);
+            buf[pos++] = tag;
+        }
+
+        private void write(Object value) {
+            if (value == null) {
+                tag(NULL);
+            } else if (value instanceof Boolean) {
+                tag((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                long number = ((Number) value).longValue();
+                tag(INTEGER);
+                writeVarLong((number << 1) ^ (number >> 63));
+            } else if (value instanceof Double) {
+                tag(DOUBLE);
+                writeLong(Double.doubleToLongBits((Double) value));
+            } else if (value instanceof Float) {
+                tag(FLOAT);
+                writeInt(Float.floatToIntBits((Float) value));
+            } else if (value instanceof CharSequence || value instanceof Enum) {
+                writeString(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            } else if (value instanceof byte[]) {
+                tag(BYTES);
+                writeBytes((byte[]) value);
+            } else if (value instanceof UUID) {
+                tag(UUID_VALUE);
+                writeLong(((UUID) value).getMostSignificantBits());
+                writeLong(((UUID) value).getLeastSignificantBits());
+            } else if (value instanceof Collection) {
+                Collection<?> list = (Collection<?>) value;
+                tag(LIST);
+                writeVarInt(list.size());
+                for (Object item : list) {
+                    write(item);
+                }
+            } else if (value instanceof Object[]) {
+                write(Arrays.asList((Object[]) value));
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                tag(MAP);
+                writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    write(entry.getKey());
+                    write(entry.getValue());
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported blob value: " + value.getClass().getName());
+            }
+        }
+
+        private void writeString(String value) {
+            if (strings == null) {
+                strings = new HashMap<>();
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                tag(STRING_REF);
+                writeVarInt(index);
+                return;
+            }
+            strings.put(value, strings.size());
+            tag(STRING);
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Reads a Blob Body, Strings are collected in the same Order as written
+     */
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private final List<String> strings = new ArrayList<>();
+
+        private Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Broken varint in Minebase blob");
+        }
+
+        private int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        private int readInt() {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        private byte[] readBytes() {
+            int length = readVarInt();
+            if (length < 0 || pos + length > buf.length) {
+                throw new IllegalArgumentException("Broken length in Minebase blob");
+            }
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        private Object read() {
+            byte tag = buf[pos++];
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return false;
+                case TRUE:
+                    return true;
+                case INTEGER:
+                    long zigzag = readVarLong();
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                case DOUBLE:
+                    return Double.longBitsToDouble(readLong());
+                case FLOAT:
+                    return Float.intBitsToFloat(readInt());
+                case STRING:
+                    String value = new String(readBytes(), StandardCharsets.UTF_8);
+                    strings.add(value);
+                    return value;
+                case STRING_REF:
+                    return strings.get(readVarInt());
+                case BYTES:
+                    return readBytes();
+                case UUID_VALUE:
+                    return new UUID(readLong(), readLong());
+                case LIST:
+                    int size = readVarInt();
+                    List<Object> list = new ArrayList<>(Math.min(size, buf.length - pos));
+                    for (int i = 0; i < size; i++) {
+                        list.add(read());
+                    }
+                    return list;
+                case MAP:
+                    int entries = readVarInt();
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < entries; i++) {
+                        Object key = read();
+                        map.put(key, read());
+                    }
+                    return map;
+                default:
+                    throw new IllegalArgumentException("Unknown tag " + tag + " in Minebase blob");
+            }
+        }
+    }
+}
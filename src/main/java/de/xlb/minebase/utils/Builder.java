@@ -1,7 +1,11 @@
 package de.xlb.minebase.utils;
 
+import de.xlb.minebase.types.Condition;
+
+import java.util.StringJoiner;
+
 /**
- * Helper Functions to Build String[]
+ * Helper Functions to Build String[] and Conditions
  * Import as Static
  */
 public class Builder {
@@ -16,4 +20,90 @@ public class Builder {
     public static String[] sort(String... x) {
         return x;
     }
+
+    //##################################################################################################################
+    //###########################################Conditions#############################################################
+    //##################################################################################################################
+
+    /**
+     * All Conditions must match
+     * @param x
+     * @return Condition
+     */
+    public static Condition where(Condition... x) {
+        return and(x);
+    }
+
+    public static Condition and(Condition... x) {
+        Condition result = null;
+        for (Condition c : x) {
+            result = result == null ? c : result.and(c);
+        }
+        return result;
+    }
+
+    public static Condition or(Condition... x) {
+        Condition result = null;
+        for (Condition c : x) {
+            result = result == null ? c : result.or(c);
+        }
+        return result;
+    }
+
+    public static Condition eq(String column, Object value) {
+        return Condition.eq(column, value);
+    }
+
+    public static Condition ne(String column, Object value) {
+        return new Condition(column + " != ?", value);
+    }
+
+    public static Condition gt(String column, Object value) {
+        return new Condition(column + " > ?", value);
+    }
+
+    public static Condition ge(String column, Object value) {
+        return new Condition(column + " >= ?", value);
+    }
+
+    public static Condition lt(String column, Object value) {
+        return new Condition(column + " < ?", value);
+    }
+
+    public static Condition le(String column, Object value) {
+        return new Condition(column + " <= ?", value);
+    }
+
+    public static Condition like(String column, String pattern) {
+        return new Condition(column + " LIKE ?", pattern);
+    }
+
+    public static Condition between(String column, Object from, Object to) {
+        return new Condition(column + " BETWEEN ? AND ?", from, to);
+    }
+
+    /**
+     * Column matches one of the Values, no Values never matches
+     * @param column
+     * @param values
+     * @return Condition
+     */
+    public static Condition in(String column, Object... values) {
+        if (values == null || values.length == 0) {
+            return new Condition("1 = 0");
+        }
+        StringJoiner placeholder = new StringJoiner(", ", column + " IN (", ")");
+        for (int i = 0; i < values.length; i++) {
+            placeholder.add("?");
+        }
+        return new Condition(placeholder.toString(), values);
+    }
+
+    public static Condition isNull(String column) {
+        return new Condition(column + " IS NULL");
+    }
+
+    public static Condition notNull(String column) {
+        return new Condition(column + " IS NOT NULL");
+    }
 }
@@ -1,9 +1,16 @@
 package de.xlb.minebase.utils;
 
 import de.xlb.minebase.api.MineDb;
+import de.xlb.minebase.api.SpatialTable;
 import de.xlb.minebase.types.*;
 import static de.xlb.minebase.utils.Builder.*;
 import java.io.File;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -11,6 +18,8 @@ import java.util.logging.Logger;
  */
 public class Test {
     private final String TEST_TABLE = "test_table_minebase";
+    private final String MIGRATION_TABLE = "test_migration_minebase";
+    private final String SPATIAL_TABLE = "test_spatial_minebase";
     // ANSI Escape Codes Colors
     public static final String ANSI_RESET = "\u001B[0m";
     public static final String ANSI_GREEN = "\u001B[32m";
@@ -37,6 +46,16 @@ public class Test {
         run(update(), "update");
         run(select(), "select");
         run(selectSum(), "selectSum");
+        run(selectAsync(), "selectAsync");
+        run(selectCondition(), "selectCondition");
+        run(selectTyped(), "selectTyped");
+        run(insertTyped(), "insertTyped");
+        run(transaction(), "transaction");
+        run(upsert(), "upsert");
+        run(selectPage(), "selectPage");
+        run(migration(), "migration");
+        run(blobCodec(), "blobCodec");
+        run(selectInBox(), "selectInBox");
         run(delete(), "delete");
 
         deleteTestSchema();
@@ -159,6 +178,224 @@ public class Test {
         }
     }
 
+    public Boolean selectAsync(){
+        try{
+            ReturnSet rs = api.selectAsync(TEST_TABLE, col("name"), cond("uuid = 4")).get(5, TimeUnit.SECONDS);
+            return rs.getColumn(0, "name").equalsIgnoreCase("Test_4");
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean selectCondition(){
+        try{
+            ReturnSet rs = api.selectWhere(TEST_TABLE, col("uuid", "name"), where(in("uuid", 4, 33), like("name", "Test_%")), sort("uuid asc"));
+            return rs.resultSize() == 2 && rs.getColumn(0, "name").equalsIgnoreCase("Test_4");
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean selectTyped(){
+        try{
+            ReturnSet rs = api.selectWhere(TEST_TABLE, col("uuid", "progress"), where(eq("uuid", 33)));
+            return rs.getLong(0, "uuid") == 33 && rs.getDouble(0, "progress") == 30.3;
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean insertTyped(){
+        try{
+            InsertRow row = new InsertRow();
+            row.put("uuid", 5L);
+            row.put("name", "Test_5");
+            row.put("progress", 50.5);
+            api.insert(TEST_TABLE, row);
+
+            ReturnSet rs = api.selectWhere(TEST_TABLE, col("typeof(uuid) as t_uuid", "typeof(progress) as t_progress"), where(eq("uuid", 5)));
+            api.deleteWhere(TEST_TABLE, where(eq("uuid", 5)));
+            return rs.getString(0, "t_uuid").equals("integer") && rs.getString(0, "t_progress").equals("real");
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean transaction(){
+        try{
+            //Both Rows or none
+            ReturnSet rs = api.transaction(tx -> {
+                InsertRow row = new InsertRow();
+                row.put("uuid", 6L);
+                row.put("name", "Test_6");
+                tx.insert(TEST_TABLE, row);
+                tx.insert(TEST_TABLE, row);
+            });
+            boolean rolledBack = rs.getError() != ReturnSet.ReturnErrors.NONE
+                    && api.selectWhere(TEST_TABLE, col("uuid"), where(eq("uuid", 6))).resultSize() == 0;
+
+            rs = api.transaction(tx -> {
+                UpdateRow row = new UpdateRow();
+                row.put("name", "Test_7");
+                tx.updateWhere(TEST_TABLE, row, where(eq("uuid", 4)));
+                tx.updateWhere(TEST_TABLE, row, where(eq("uuid", 33)));
+            });
+            boolean committed = rs.getError() == ReturnSet.ReturnErrors.NONE
+                    && api.selectWhere(TEST_TABLE, col("uuid"), where(eq("name", "Test_7"))).resultSize() == 2;
+
+            UpdateRow restore = new UpdateRow();
+            restore.put("name", "Test_4");
+            api.updateWhere(TEST_TABLE, restore, where(eq("uuid", 4)));
+            restore.put("name", "Test_3_Updated");
+            api.updateWhere(TEST_TABLE, restore, where(eq("uuid", 33)));
+            return rolledBack && committed;
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean upsert(){
+        try{
+            InsertRow row = new InsertRow();
+            row.put("uuid", 8L);
+            row.put("name", "Test_8");
+            api.upsert(TEST_TABLE, row);
+            row.put("name", "Test_8_Saved");
+            api.upsert(TEST_TABLE, row);
+
+            ReturnSet rs = api.selectWhere(TEST_TABLE, col("name"), where(eq("uuid", 8)));
+            api.deleteWhere(TEST_TABLE, where(eq("uuid", 8)));
+            return rs.resultSize() == 1 && rs.getString(0, "name").equals("Test_8_Saved");
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean selectPage(){
+        try{
+            //Rows by progress: 4 (40), 33 (30.3), 2 (20), 1 (10)
+            ReturnSet first = api.selectPage(TEST_TABLE, col("uuid"), null, sort("progress desc"), 3, null);
+            if(first.resultSize() != 3 || first.getLong(2, "uuid") != 2 || first.getNextPageToken() == null){
+                return false;
+            }
+            ReturnSet second = api.selectPage(TEST_TABLE, col("uuid"), null, sort("progress desc"), 3, first.getNextPageToken());
+            return second.resultSize() == 1 && second.getLong(0, "uuid") == 1 && second.getNextPageToken() == null;
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean migration(){
+        try{
+            TableConfig conf = new TableConfig(MIGRATION_TABLE);
+            conf.addColumn("uuid", TableConfig.ColTypes.INTEGER);
+            conf.addColumn("name", TableConfig.ColTypes.TEXT);
+            conf.setPrimary("uuid");
+            api.createTable(conf);
+            InsertRow row = new InsertRow();
+            row.put("uuid", 1L);
+            row.put("name", "Test_1");
+            api.insert(MIGRATION_TABLE, row);
+
+            //Rename name, add coins
+            TableConfig migrated = new TableConfig(MIGRATION_TABLE);
+            migrated.addColumn("uuid", TableConfig.ColTypes.INTEGER);
+            migrated.addColumn("player_name", TableConfig.ColTypes.TEXT, "name");
+            migrated.addColumn("coins", TableConfig.ColTypes.INTEGER);
+            migrated.setPrimary("uuid");
+            api.migrateTable(migrated);
+            ReturnSet rs = api.selectWhere(MIGRATION_TABLE, col("player_name", "coins"), where(eq("uuid", 1)));
+            boolean kept = rs.resultSize() == 1 && rs.getString(0, "player_name").equals("Test_1") && rs.isNull(0, "coins");
+
+            //NOT NULL without DEFAULT is rejected, the Table stays as it is
+            migrated.getTableColumns().add(Map.of("name", "level", "type", "INTEGER NOT NULL"));
+            api.migrateTable(migrated);
+            boolean rejected = api.select(MIGRATION_TABLE, col("level")).getError() != ReturnSet.ReturnErrors.NONE
+                    && api.select(MIGRATION_TABLE).resultSize() == 1;
+
+            //Constrained Columns match the live Table, migrating again doesn't rebuild it (same Rootpage)
+            TableConfig constrained = new TableConfig(MIGRATION_TABLE);
+            constrained.addColumn("uuid", TableConfig.ColTypes.INTEGER);
+            constrained.addColumn("player_name", TableConfig.ColTypes.TEXT);
+            constrained.addColumn("coins", TableConfig.ColTypes.INTEGER);
+            constrained.getTableColumns().add(Map.of("name", "level", "type", "INTEGER NOT NULL DEFAULT 0"));
+            constrained.setPrimary("uuid");
+            api.migrateTable(constrained);
+            long rootPage = rootPage(MIGRATION_TABLE);
+            api.migrateTable(constrained);
+            boolean unchanged = rootPage > 0 && rootPage == rootPage(MIGRATION_TABLE)
+                    && api.select(MIGRATION_TABLE, col("level")).getLong(0, "level") == 0;
+
+            api.deleteTable(MIGRATION_TABLE);
+            return kept && rejected && unchanged;
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean blobCodec(){
+        try{
+            Map<String, Object> location = new LinkedHashMap<>();
+            location.put("world", "world");
+            location.put("x", 123.5);
+            location.put("y", -64L);
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("location", location);
+            value.put("items", List.of("STONE", "STONE", "TORCH"));
+            value.put("flying", true);
+
+            //Plain and deflated
+            return value.equals(BlobCodec.decodeMap(BlobCodec.encode(value, -1)))
+                    && value.equals(BlobCodec.decodeMap(BlobCodec.encode(value, 0)));
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    public Boolean selectInBox(){
+        try{
+            TableConfig conf = SpatialTable.tableConfig(SPATIAL_TABLE);
+            conf.addColumn("id", TableConfig.ColTypes.INTEGER);
+            conf.setPrimary("id");
+            api.createTable(conf);
+            SpatialTable spatial = new SpatialTable(api, SPATIAL_TABLE);
+
+            //Chunks 0/0, 1/0 and -1/-1 are inside, 6/6 is outside
+            int[][] blocks = {{0, 0}, {15, 15}, {16, 0}, {-1, -1}, {100, 100}};
+            for (int i = 0; i < blocks.length; i++) {
+                InsertRow row = new InsertRow();
+                row.put("id", (long) i);
+                SpatialTable.putLocation(row, "world", blocks[i][0], 64, blocks[i][1]);
+                api.insert(SPATIAL_TABLE, row);
+            }
+            ReturnSet rs = spatial.selectInBox("world", -1, 0, -1, 16, 255, 15);
+            Set<Long> ids = new HashSet<>();
+            for (int i = 0; i < rs.resultSize(); i++) {
+                ids.add(rs.getLong(i, "id"));
+            }
+
+            api.deleteTable(SPATIAL_TABLE);
+            return ids.equals(Set.of(0L, 1L, 2L, 3L));
+        }catch (Exception e){
+            log.severe(e.toString());
+            return false;
+        }
+    }
+
+    private long rootPage(String table){
+        ReturnSet rs = api.selectWhere("sqlite_master", col("rootpage"), where(eq("name", table)));
+        return rs.resultSize() == 1 ? rs.getLong(0, "rootpage") : -1;
+    }
+
     private void run(Boolean test, String toTest){
         if(test){
             log.info(ANSI_GREEN + "SUCCESS: " + toTest + ANSI_RESET);